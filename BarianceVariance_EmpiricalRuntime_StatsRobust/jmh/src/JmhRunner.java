@@ -0,0 +1,169 @@
+import bariance.jmh.CovarianceMatrixBenchmark;
+import bariance.jmh.EstimatorBenchmark;
+import bariance.jmh.FusedBenchmark;
+import bariance.jmh.GroupedVarianceBenchmark;
+import bariance.jmh.ParallelScalingBenchmark;
+import bariance.jmh.PrimitiveBenchmark;
+import bariance.jmh.ShiftedGammaBenchmark;
+import bariance.jmh.SlidingWindowBenchmark;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.stream.IntStream;
+
+// Runs EstimatorBenchmark with the grid of one of the legacy drivers and writes
+// JMH's JSON next to a CSV in the SampleSize,Trial,Estimator,RuntimeNs shape.
+public class JmhRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String profile = args.length > 0 ? args[0] : "gamma";
+        String prefix = args.length > 1 ? args[1] : "./variance_bariance_runtime_" + profile + "_jmh";
+
+        String benchmark = EstimatorBenchmark.class.getName();
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .result(prefix + ".json")
+                .resultFormat(ResultFormatType.JSON);
+        // Profiles that also need a run of another benchmark with its own parameters
+        ChainedOptionsBuilder baseline = null;
+
+        switch (profile) {
+            case "gamma":
+                options.param("n", sizes(MainGammaDistSeeded.sampleSizes))
+                        .param("estimator", "Unbiased", "BarianceOpt")
+                        .param("distribution", "Gamma");
+                break;
+            case "normal":
+                options.param("n", sizes(MainNormalDistUnseeded.sampleSizes))
+                        .param("estimator", "Unbiased", "BarianceOpt")
+                        .param("distribution", "Normal");
+                break;
+            case "big8":
+                options.param("n", sizes(GammaDistSeededBigEight.sampleSizes))
+                        .param("estimator", "Unbiased", "Biased", "BarianceOpt", "NaivePairwise",
+                                "UnbiasedPairwise", "BiasedPairwise", "PopulationVar", "AltBariance")
+                        .param("distribution", "Gamma");
+                break;
+            case "fair":
+                options.param("n", sizes(FairGammaDistSeededBenchmark.sampleSizes))
+                        .param("estimator", "UnbiasedOptim", "BiasedOptim", "PopulationOptim",
+                                "BarianceOptim", "AltBarianceOptim")
+                        .param("distribution", "Gamma");
+                break;
+            case "pairwise":
+                options.param("n", sizes(GammaDistSeededBigEight.extendedSampleSizes))
+                        .param("estimator", "FastPairwise", "BlockedPairwise", "ParallelPairwise")
+                        .param("distribution", "Gamma");
+                break;
+            case "simd":
+                options.param("n", "100", "1000", "10000", "100000", "500000", "1000000", "5000000")
+                        .param("estimator", "Unbiased", "UnbiasedSimd", "BarianceOpt", "BarianceSimd",
+                                "AltBariance", "AltBarianceSimd")
+                        .param("distribution", "Gamma");
+                break;
+            case "parallel":
+                benchmark = ParallelScalingBenchmark.class.getName();
+                options.param("n", sizes(MainGammaDistSeeded.sampleSizes))
+                        .param("estimator", "BarianceParallel", "UnbiasedParallel")
+                        .param("parallelism", sizes(coreCounts(Runtime.getRuntime().availableProcessors())));
+                // The scalar kernels ignore the pool size, so their baseline is timed once
+                baseline = new OptionsBuilder()
+                        .include(EstimatorBenchmark.class.getName())
+                        .result(prefix + "_baseline.json")
+                        .resultFormat(ResultFormatType.JSON)
+                        .param("n", sizes(MainGammaDistSeeded.sampleSizes))
+                        .param("estimator", "BarianceOpt", "UnbiasedOptim")
+                        .param("distribution", "Gamma");
+                break;
+            case "accuracy":
+                benchmark = ShiftedGammaBenchmark.class.getName();
+                break;
+            case "grouped":
+                benchmark = GroupedVarianceBenchmark.class.getName();
+                break;
+            case "sliding":
+                benchmark = SlidingWindowBenchmark.class.getName();
+                break;
+            case "primitive":
+                benchmark = PrimitiveBenchmark.class.getName();
+                options.param("n", sizes(MainGammaDistSeeded.sampleSizes));
+                break;
+            case "fused":
+                benchmark = FusedBenchmark.class.getName();
+                break;
+            case "covariance":
+                benchmark = CovarianceMatrixBenchmark.class.getName();
+                break;
+            case "robust":
+                options.param("n", "1000", "10000", "100000", "1000000", "5000000")
+                        .param("estimator", "Unbiased", "BarianceOpt", "MadVariance", "IqrVariance", "IqrSorted",
+                                "TrimmedVariance", "WinsorizedVariance", "MadParallel", "IqrParallel",
+                                "TrimmedParallel", "WinsorizedParallel")
+                        .param("distribution", "Gamma");
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown profile: " + profile
+                        + " (expected gamma, normal, big8, fair, pairwise, simd, parallel, accuracy, grouped, sliding, primitive, fused, covariance or robust)");
+        }
+        options.include(benchmark);
+
+        Collection<RunResult> results = new ArrayList<>();
+        if (baseline != null) results.addAll(new Runner(baseline.build()).run());
+        results.addAll(new Runner(options.build()).run());
+        writeCsv(results, prefix + ".csv");
+        System.out.println("Benchmark complete. Data written to " + prefix + ".csv and " + prefix + ".json");
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+
+    // One row per measurement iteration; Trial counts iterations across all forks
+    static void writeCsv(Collection<RunResult> results, String path) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+            writer.write("SampleSize,Trial,Estimator,RuntimeNs\n");
+            for (RunResult run : results) {
+                String n = run.getParams().getParam("n");
+                String estimator = label(run);
+                int t = 0;
+                for (BenchmarkResult fork : run.getBenchmarkResults()) {
+                    for (IterationResult iteration : fork.getIterationResults()) {
+                        long ns = Math.round(iteration.getPrimaryResult().getScore());
+                        writer.write(n + "," + t++ + "," + estimator + "," + ns + "\n");
+                    }
+                }
+            }
+        }
+    }
+
+    // Parameters beyond the driver grid (e.g. parallelism) are folded into the estimator label
+    static String label(RunResult run) {
+        StringBuilder label = new StringBuilder(run.getParams().getParam("estimator"));
+        for (String key : run.getParams().getParamsKeys()) {
+            if (!key.equals("n") && !key.equals("estimator") && !key.equals("distribution")) {
+                label.append('[').append(key).append('=').append(run.getParams().getParam(key)).append(']');
+            }
+        }
+        return label.toString();
+    }
+
+    // 1, 2, 4, ... up to and including the machine's core count
+    static int[] coreCounts(int cores) {
+        int[] powers = IntStream.iterate(1, p -> p < cores, p -> p * 2).toArray();
+        int[] counts = Arrays.copyOf(powers, powers.length + 1);
+        counts[powers.length] = cores;
+        return counts;
+    }
+
+    static String[] sizes(int[] sampleSizes) {
+        return Arrays.stream(sampleSizes).mapToObj(Integer::toString).toArray(String[]::new);
+    }
+}
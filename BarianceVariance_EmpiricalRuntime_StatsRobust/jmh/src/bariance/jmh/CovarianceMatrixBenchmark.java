@@ -0,0 +1,73 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// p x p co-bariance matrix of n-row columns: the scalar two-column kernel looped over the upper
+// triangle (PairLoop) vs. CovarianceMatrix's packed, tiled kernel on one thread (Blocked), with
+// the Vector API tile (BlockedSimd), and split over the common pool with the default leaf size (Parallel).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class CovarianceMatrixBenchmark {
+
+    static final MethodHandle MATRIX = Estimators.handle("CovarianceMatrix", "coBariance",
+            MethodType.methodType(double[][].class, ForkJoinPool.class, double[][].class, int.class, boolean.class));
+    static final MethodHandle MATRIX_DEFAULT = Estimators.handle("CovarianceMatrix", "coBariance",
+            MethodType.methodType(double[][].class, ForkJoinPool.class, double[][].class));
+    static final MethodHandle PAIR = Estimators.handle("CovarianceMatrix", "coBariance",
+            MethodType.methodType(double.class, double[].class, double[].class));
+
+    @Param({"10000", "100000"})
+    public int n;
+
+    @Param({"16", "64", "256"})
+    public int p;
+
+    @Param({"PairLoop", "Blocked", "BlockedSimd", "Parallel"})
+    public String estimator;
+
+    double[][] columns;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random rand = new Random(EstimatorBenchmark.seed);
+        double[] common = Estimators.gammaSample(n, EstimatorBenchmark.seed);
+        columns = new double[p][n];
+        for (int c = 0; c < p; c++) {
+            for (int i = 0; i < n; i++) columns[c][i] = common[i] + rand.nextGaussian();
+        }
+    }
+
+    @Benchmark
+    public void matrix(Blackhole bh) throws Throwable {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        switch (estimator) {
+            case "PairLoop":
+                for (int j = 0; j < p; j++) {
+                    for (int k = j; k < p; k++) bh.consume((double) PAIR.invokeExact(columns[j], columns[k]));
+                }
+                break;
+            case "Blocked":
+                bh.consume((double[][]) MATRIX.invokeExact(pool, columns, Integer.MAX_VALUE, false));
+                break;
+            case "BlockedSimd":
+                bh.consume((double[][]) MATRIX.invokeExact(pool, columns, Integer.MAX_VALUE, true));
+                break;
+            case "Parallel":
+                bh.consume((double[][]) MATRIX_DEFAULT.invokeExact(pool, columns));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown estimator: " + estimator);
+        }
+    }
+}
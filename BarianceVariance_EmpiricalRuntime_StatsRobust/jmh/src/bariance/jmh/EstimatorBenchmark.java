@@ -0,0 +1,47 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "--add-modules", "jdk.incubator.vector"})
+public class EstimatorBenchmark {
+
+    // Defaults mirror MainGammaDistSeeded; JmhRunner overrides them per driver profile
+    @Param({"100", "500", "1000", "2000", "10000", "20000", "40000", "100000", "500000"})
+    public int n;
+
+    @Param({"Unbiased", "BarianceOpt"})
+    public String estimator;
+
+    @Param({"Gamma"})
+    public String distribution;
+
+    static final long seed = 42L;
+
+    double[] data;
+    ToDoubleFunction<double[]> kernel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = distribution.equals("Normal") ? Estimators.normalSample(n, seed) : Estimators.gammaSample(n, seed);
+        kernel = resolve(estimator);
+    }
+
+    @Benchmark
+    public void estimate(Blackhole bh) {
+        bh.consume(kernel.applyAsDouble(data));
+    }
+
+    // Estimator names match the Estimator column written by the drivers
+    static ToDoubleFunction<double[]> resolve(String name) {
+        return Estimators.registered(name);
+    }
+}
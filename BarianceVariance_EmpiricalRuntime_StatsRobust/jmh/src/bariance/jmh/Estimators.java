@@ -0,0 +1,83 @@
+package bariance.jmh;
+
+import java.lang.invoke.*;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+
+// JMH refuses benchmarks in the unnamed package, and named packages cannot import from it,
+// so the estimator sources are reached through method handles resolved once per trial.
+// LambdaMetafactory turns them into ordinary lambdas the JIT inlines like a method reference.
+final class Estimators {
+
+    private Estimators() {
+    }
+
+    // Looks the estimator up in the VarianceEstimators registry; every registered estimator is a
+    // ToDoubleFunction<double[]>, so the call site stays monomorphic within a fork
+    @SuppressWarnings("unchecked")
+    static ToDoubleFunction<double[]> registered(String name) {
+        try {
+            MethodHandle get = MethodHandles.lookup().findStatic(Class.forName("VarianceEstimators"), "get",
+                    MethodType.methodType(Class.forName("VarianceEstimator"), String.class));
+            return (ToDoubleFunction<double[]>) get.invoke(name);
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot resolve estimator " + name, e);
+        }
+    }
+
+    // Binds a static (ForkJoinPool, double[]) kernel with the pool captured
+    static ToDoubleFunction<double[]> kernel(String className, String methodName, ForkJoinPool pool) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle target = lookup.findStatic(Class.forName(className), methodName,
+                    MethodType.methodType(double.class, ForkJoinPool.class, double[].class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "applyAsDouble",
+                    MethodType.methodType(ToDoubleFunction.class, ForkJoinPool.class),
+                    MethodType.methodType(double.class, Object.class),
+                    target, MethodType.methodType(double.class, double[].class));
+            @SuppressWarnings("unchecked")
+            ToDoubleFunction<double[]> kernel = (ToDoubleFunction<double[]>) site.getTarget().invoke(pool);
+            return kernel;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot bind " + className + "." + methodName, e);
+        }
+    }
+
+    // Handle for kernels that do not fit ToDoubleFunction<double[]>; store it in a static final
+    // field so the JIT treats it as a constant and inlines through invokeExact
+    static MethodHandle handle(String className, String methodName, MethodType type) {
+        try {
+            return MethodHandles.lookup().findStatic(Class.forName(className), methodName, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot bind " + className + "." + methodName, e);
+        }
+    }
+
+    // Same data the seeded drivers feed their estimators: nextGamma(shape=2, scale=2) on Random(seed)
+    static double[] gammaSample(int n, long seed) {
+        try {
+            MethodHandle nextGamma = MethodHandles.lookup().findStatic(Class.forName("GammaSampler"), "nextGamma",
+                    MethodType.methodType(double.class, Random.class, double.class, double.class));
+            Random rand = new Random(seed);
+            double[] data = new double[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = (double) nextGamma.invokeExact(rand, 2.0, 2.0);
+            }
+            return data;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot generate gamma sample", e);
+        }
+    }
+
+    static double[] normalSample(int n, long seed) {
+        Random rand = new Random(seed);
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = rand.nextGaussian();
+        }
+        return data;
+    }
+}
@@ -0,0 +1,73 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Cost of reporting a whole estimator set: one registered kernel per estimator (Separate) vs.
+// FusedVariance deriving all of them from one pass (Fused). The set is GammaDistSeededBigEight's
+// with O(n) stand-ins for the two O(n^2) pairwise estimators, so n can reach 5M.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class FusedBenchmark {
+
+    static final String[] ESTIMATORS = {"Unbiased", "Biased", "BarianceOpt", "FastPairwise",
+            "UnbiasedOptim", "BiasedOptim", "PopulationVar", "AltBariance"};
+
+    static final MethodHandle FORMS, ESTIMATE_ALL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> fused = Class.forName("FusedVariance");
+            Class<?> forms = Class.forName("FusedVariance$Form").arrayType();
+            FORMS = lookup.findStatic(fused, "forms", MethodType.methodType(forms, String[].class))
+                    .asType(MethodType.methodType(Object.class, String[].class));
+            ESTIMATE_ALL = lookup.findStatic(fused, "estimateAll",
+                            MethodType.methodType(void.class, double[].class, int.class, int.class, forms, double[].class))
+                    .asType(MethodType.methodType(void.class, double[].class, int.class, int.class, Object.class, double[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({"1000", "100000", "1000000", "5000000"})
+    public int n;
+
+    @Param({"Separate", "Fused"})
+    public String estimator;
+
+    double[] data;
+    ToDoubleFunction<double[]>[] kernels;
+    Object forms;
+    double[] out;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void setup() throws Throwable {
+        data = Estimators.gammaSample(n, EstimatorBenchmark.seed);
+        kernels = new ToDoubleFunction[ESTIMATORS.length];
+        for (int i = 0; i < ESTIMATORS.length; i++) kernels[i] = Estimators.registered(ESTIMATORS[i]);
+        forms = (Object) FORMS.invokeExact(ESTIMATORS);
+        out = new double[ESTIMATORS.length];
+    }
+
+    @Benchmark
+    public void estimateAll(Blackhole bh) throws Throwable {
+        if (estimator.equals("Fused")) {
+            ESTIMATE_ALL.invokeExact(data, 0, n, forms, out);
+            bh.consume(out);
+        } else {
+            for (ToDoubleFunction<double[]> kernel : kernels) bh.consume(kernel.applyAsDouble(data));
+        }
+    }
+}
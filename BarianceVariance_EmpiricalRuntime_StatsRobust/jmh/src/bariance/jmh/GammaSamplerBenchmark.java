@@ -0,0 +1,66 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Data generation cost: legacy nextGamma on java.util.Random vs. GammaSampler batch and parallel fills
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class GammaSamplerBenchmark {
+
+    @Param({"100000"})
+    public int n;
+
+    double[] data;
+    Random rand;
+    MethodHandle nextGamma;
+    Object sampler;
+    MethodHandle fill, parallelFill;
+    ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        data = new double[n];
+        rand = new Random(EstimatorBenchmark.seed);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        nextGamma = lookup.findStatic(Class.forName("GammaSampler"), "nextGamma",
+                MethodType.methodType(double.class, Random.class, double.class, double.class));
+        Class<?> samplerClass = Class.forName("GammaSampler");
+        sampler = samplerClass.getConstructor(long.class).newInstance(EstimatorBenchmark.seed);
+        fill = lookup.findVirtual(samplerClass, "fill",
+                MethodType.methodType(void.class, double[].class, double.class, double.class)).bindTo(sampler);
+        parallelFill = lookup.findStatic(samplerClass, "parallelFill", MethodType.methodType(void.class,
+                ForkJoinPool.class, double[].class, double.class, double.class, long.class, int.class));
+        pool = ForkJoinPool.commonPool();
+    }
+
+    @Benchmark
+    public double[] legacyNextGamma() throws Throwable {
+        for (int i = 0; i < n; i++) {
+            data[i] = (double) nextGamma.invokeExact(rand, 2.0, 2.0);
+        }
+        return data;
+    }
+
+    @Benchmark
+    public double[] samplerFill() throws Throwable {
+        fill.invokeExact(data, 2.0, 2.0);
+        return data;
+    }
+
+    @Benchmark
+    public double[] samplerParallelFill() throws Throwable {
+        parallelFill.invokeExact(pool, data, 2.0, 2.0, EstimatorBenchmark.seed, 64);
+        return data;
+    }
+}
@@ -0,0 +1,99 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Many small groups: one optimizedBariance call per group vs. the segmented and group-id kernels
+// of GroupedVariance. n is the total value count; groupSizes is a fixed size or "mixed"
+// (log-uniform between 2 and 10,000). Score is ns for all groups.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class GroupedVarianceBenchmark {
+
+    static final MethodHandle RANGE_BARIANCE = Estimators.handle("VarianceKernels", "optimizedBariance",
+            MethodType.methodType(double.class, double[].class, int.class, int.class));
+    static final MethodHandle SEGMENTED = Estimators.handle("GroupedVariance", "segmented",
+            MethodType.methodType(void.class, double[].class, int[].class, double[].class, double[].class));
+    static final MethodHandle PARALLEL_SEGMENTED = Estimators.handle("GroupedVariance", "parallelSegmented",
+            MethodType.methodType(void.class, double[].class, int[].class, double[].class, double[].class));
+    static final MethodHandle BY_GROUP_ID = Estimators.handle("GroupedVariance", "byGroupId",
+            MethodType.methodType(void.class, double[].class, int[].class, int.class, double[].class, double[].class,
+                    double[].class));
+    // Doubles of GroupedVariance.byGroupId state per group
+    static final int GROUP_STATE = 4;
+
+    @Param({"4194304"})
+    public int n;
+
+    @Param({"2", "16", "128", "1024", "10000", "mixed"})
+    public String groupSizes;
+
+    @Param({"PerGroupBariance", "SegmentedBariance", "Segmented", "SegmentedParallel", "GroupIds"})
+    public String estimator;
+
+    double[] data;
+    int[] offsets, ids;
+    int groups;
+    double[] variance, bariance, state;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = Estimators.gammaSample(n, EstimatorBenchmark.seed);
+        int[] bounds = new int[n + 1];
+        Random rand = new Random(EstimatorBenchmark.seed);
+        int g = 0;
+        for (int end = 0; end < n; ) {
+            int size = groupSizes.equals("mixed")
+                    ? (int) Math.round(Math.exp(Math.log(2) + rand.nextDouble() * Math.log(10000 / 2.0)))
+                    : Integer.parseInt(groupSizes);
+            end = Math.min(end + size, n);
+            bounds[++g] = end;
+        }
+        groups = g;
+        offsets = Arrays.copyOf(bounds, groups + 1);
+        ids = new int[n];
+        for (g = 0; g < groups; g++) {
+            for (int i = offsets[g]; i < offsets[g + 1]; i++) ids[i] = g;
+        }
+        variance = new double[groups];
+        bariance = new double[groups];
+        state = new double[GROUP_STATE * groups];
+    }
+
+    @Benchmark
+    public void estimate(Blackhole bh) throws Throwable {
+        switch (estimator) {
+            case "PerGroupBariance":
+                for (int g = 0; g < groups; g++) {
+                    bariance[g] = (double) RANGE_BARIANCE.invokeExact(data, offsets[g], offsets[g + 1]);
+                }
+                break;
+            case "SegmentedBariance":
+                SEGMENTED.invokeExact(data, offsets, (double[]) null, bariance);
+                break;
+            case "Segmented":
+                SEGMENTED.invokeExact(data, offsets, variance, bariance);
+                break;
+            case "SegmentedParallel":
+                PARALLEL_SEGMENTED.invokeExact(data, offsets, variance, bariance);
+                break;
+            case "GroupIds":
+                BY_GROUP_ID.invokeExact(data, ids, groups, variance, bariance, state);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown estimator: " + estimator);
+        }
+        bh.consume(bariance);
+        bh.consume(variance);
+    }
+}
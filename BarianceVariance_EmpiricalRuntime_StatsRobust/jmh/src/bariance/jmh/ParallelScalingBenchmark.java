@@ -0,0 +1,58 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Scaling of the fork-join estimators over pool sizes; JmhRunner times the scalar baselines once
+// under EstimatorBenchmark, since they do not depend on the pool
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParallelScalingBenchmark {
+
+    @Param({"100", "500", "1000", "2000", "10000", "20000", "40000", "100000", "500000"})
+    public int n;
+
+    @Param({"BarianceParallel", "UnbiasedParallel"})
+    public String estimator;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    double[] data;
+    ForkJoinPool pool;
+    ToDoubleFunction<double[]> kernel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = Estimators.gammaSample(n, EstimatorBenchmark.seed);
+        pool = new ForkJoinPool(parallelism);
+        switch (estimator) {
+            case "BarianceParallel":
+                kernel = Estimators.kernel("ParallelVariance", "parallelBariance", pool);
+                break;
+            case "UnbiasedParallel":
+                kernel = Estimators.kernel("ParallelVariance", "parallelUnbiasedVariance", pool);
+                break;
+            default:
+                kernel = EstimatorBenchmark.resolve(estimator);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public void estimate(Blackhole bh) {
+        bh.consume(kernel.applyAsDouble(data));
+    }
+}
@@ -0,0 +1,79 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+// float[], int[] and long[] bariance: PrimitiveVariance reading the narrow array directly vs.
+// widening into a fresh double[] (Widen) or a reused one (WidenInto) before optimizedBariance.
+// Data is Gamma(2, 2) as float, as round(1000 * x) for int, and as 2^40 + round(1000 * x) for long.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class PrimitiveBenchmark {
+
+    static final MethodHandle FLOAT_BARIANCE = Estimators.handle("PrimitiveVariance", "bariance",
+            MethodType.methodType(double.class, float[].class));
+    static final MethodHandle INT_BARIANCE = Estimators.handle("PrimitiveVariance", "bariance",
+            MethodType.methodType(double.class, int[].class));
+    static final MethodHandle LONG_BARIANCE = Estimators.handle("PrimitiveVariance", "bariance",
+            MethodType.methodType(double.class, long[].class));
+    static final MethodHandle DOUBLE_BARIANCE = Estimators.handle("VarianceKernels", "optimizedBariance",
+            MethodType.methodType(double.class, double[].class));
+
+    @Param({"100", "500", "1000", "2000", "10000", "20000", "40000", "100000", "500000"})
+    public int n;
+
+    @Param({"Specialized", "Widen", "WidenInto"})
+    public String estimator;
+
+    @Param({"float", "int", "long"})
+    public String type;
+
+    float[] floats;
+    int[] ints;
+    long[] longs;
+    double[] buffer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        double[] gamma = Estimators.gammaSample(n, EstimatorBenchmark.seed);
+        floats = new float[n];
+        ints = new int[n];
+        longs = new long[n];
+        for (int i = 0; i < n; i++) {
+            floats[i] = (float) gamma[i];
+            ints[i] = (int) Math.round(1000 * gamma[i]);
+            longs[i] = (1L << 40) + ints[i];
+        }
+        buffer = new double[n];
+    }
+
+    @Benchmark
+    public double estimate() throws Throwable {
+        boolean specialized = estimator.equals("Specialized");
+        double[] widened = estimator.equals("Widen") ? new double[n] : buffer;
+        switch (type) {
+            case "float":
+                if (specialized) return (double) FLOAT_BARIANCE.invokeExact(floats);
+                for (int i = 0; i < n; i++) widened[i] = floats[i];
+                break;
+            case "int":
+                if (specialized) return (double) INT_BARIANCE.invokeExact(ints);
+                for (int i = 0; i < n; i++) widened[i] = ints[i];
+                break;
+            case "long":
+                if (specialized) return (double) LONG_BARIANCE.invokeExact(longs);
+                for (int i = 0; i < n; i++) widened[i] = longs[i];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type: " + type);
+        }
+        return (double) DOUBLE_BARIANCE.invokeExact(widened);
+    }
+}
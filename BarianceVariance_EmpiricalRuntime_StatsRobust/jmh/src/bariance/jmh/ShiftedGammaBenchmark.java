@@ -0,0 +1,42 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+// Throughput half of ShiftedGammaAccuracy: the bariance accuracy modes on Gamma(2, 2) + offset.
+// The offset changes no instruction counts, but it moves the Neumaier branches off their easy side.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ShiftedGammaBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int n;
+
+    @Param({"BarianceOpt", "BarianceNeumaier", "BariancePairwiseSum", "BarianceShifted", "FastPairwise"})
+    public String estimator;
+
+    @Param({"0", "1e4", "1e8"})
+    public double offset;
+
+    double[] data;
+    ToDoubleFunction<double[]> kernel;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        data = Estimators.gammaSample(n, EstimatorBenchmark.seed);
+        for (int i = 0; i < n; i++) data[i] += offset;
+        kernel = EstimatorBenchmark.resolve(estimator);
+    }
+
+    @Benchmark
+    public void estimate(Blackhole bh) {
+        bh.consume(kernel.applyAsDouble(data));
+    }
+}
@@ -0,0 +1,77 @@
+package bariance.jmh;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+// Cost of advancing a rolling window by one value: SlidingBariance's O(1) add vs. recomputing the
+// window with the range estimators. Score is ns per step; the series wraps around after n values.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 20, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 2, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SlidingWindowBenchmark {
+
+    static final MethodHandle NEW_SLIDING, ADD, BARIANCE, RANGE_BARIANCE, RANGE_UNBIASED;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            Class<?> sliding = Class.forName("SlidingBariance");
+            NEW_SLIDING = lookup.findConstructor(sliding, MethodType.methodType(void.class, int.class))
+                    .asType(MethodType.methodType(Object.class, int.class));
+            ADD = lookup.findVirtual(sliding, "add", MethodType.methodType(void.class, double.class))
+                    .asType(MethodType.methodType(void.class, Object.class, double.class));
+            BARIANCE = lookup.findVirtual(sliding, "bariance", MethodType.methodType(double.class))
+                    .asType(MethodType.methodType(double.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        MethodType range = MethodType.methodType(double.class, double[].class, int.class, int.class);
+        RANGE_BARIANCE = Estimators.handle("VarianceKernels", "optimizedBariance", range);
+        RANGE_UNBIASED = Estimators.handle("VarianceKernels", "unbiasedVariance", range);
+    }
+
+    @Param({"1048576"})
+    public int n;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int window;
+
+    @Param({"Sliding", "RecomputeBariance", "RecomputeUnbiased"})
+    public String estimator;
+
+    double[] data;
+    Object sliding;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        data = Estimators.gammaSample(n, EstimatorBenchmark.seed);
+        sliding = (Object) NEW_SLIDING.invokeExact(window);
+        for (int i = 0; i < window; i++) ADD.invokeExact(sliding, data[i]);
+        next = window + 1;
+    }
+
+    @Benchmark
+    public double step() throws Throwable {
+        int end = next;
+        next = end == n ? window + 1 : end + 1;
+        switch (estimator) {
+            case "Sliding":
+                ADD.invokeExact(sliding, data[end - 1]);
+                return (double) BARIANCE.invokeExact(sliding);
+            case "RecomputeBariance":
+                return (double) RANGE_BARIANCE.invokeExact(data, end - window, end);
+            case "RecomputeUnbiased":
+                return (double) RANGE_UNBIASED.invokeExact(data, end - window, end);
+            default:
+                throw new IllegalArgumentException("Unknown estimator: " + estimator);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.io.IOException;
+import java.util.List;
+
+// Brackets a timed region with the thread's allocated-bytes counter and the collectors'
+// collection counts, and records both per (sampleSize, trial, estimator) next to the runtime
+// CSV. Enabled with -Dbv.probe=true; otherwise begin/end are no-ops.
+public final class AllocationProbe implements AutoCloseable {
+
+    static final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    final boolean enabled;
+    final GarbageCollectorMXBean[] collectors;
+    final ResultSink bytesSink, gcSink;
+    final long overhead;
+    long bytesAtBegin, gcAtBegin;
+    long totalBytes, totalGcs, regions;
+
+    private AllocationProbe(String prefix, String[] estimators) throws IOException {
+        enabled = prefix != null;
+        List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        collectors = beans.toArray(new GarbageCollectorMXBean[0]);
+        bytesSink = enabled ? ResultSink.open(prefix + "_alloc.csv", "AllocatedBytes", estimators) : null;
+        gcSink = enabled ? ResultSink.open(prefix + "_gc.csv", "GcCount", estimators) : null;
+        overhead = enabled ? calibrate() : 0;
+    }
+
+    public static AllocationProbe forRun(String prefix, String... estimators) throws IOException {
+        return new AllocationProbe(Boolean.getBoolean("bv.probe") ? prefix : null, estimators);
+    }
+
+    public void begin() {
+        if (!enabled) return;
+        gcAtBegin = gcCount();
+        bytesAtBegin = threads.getCurrentThreadAllocatedBytes();
+    }
+
+    public void end(int sampleSize, int trial, int estimatorId) {
+        if (!enabled) return;
+        long bytes = threads.getCurrentThreadAllocatedBytes() - bytesAtBegin - overhead;
+        long gcs = gcCount() - gcAtBegin;
+        bytesSink.record(sampleSize, trial, estimatorId, bytes);
+        gcSink.record(sampleSize, trial, estimatorId, gcs);
+        totalBytes += bytes;
+        totalGcs += gcs;
+        regions++;
+    }
+
+    long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : collectors) count += Math.max(0, gc.getCollectionCount());
+        return count;
+    }
+
+    // Bytes the counter reports for an empty region, subtracted from every measurement
+    private long calibrate() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            min = Math.min(min, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        return min;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!enabled) return;
+        bytesSink.close();
+        gcSink.close();
+        System.out.println("Timed regions: " + regions + ", allocated " + totalBytes + " bytes, "
+                + totalGcs + " GC events inside timed regions");
+    }
+}
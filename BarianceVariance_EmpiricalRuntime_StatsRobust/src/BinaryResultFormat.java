@@ -0,0 +1,88 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Compact columnar layout: a header (magic, version, value column, estimator names) followed by
+// one block per batch holding its row count and then the int sampleSize, int trial,
+// byte estimator and long value columns back to back, all little-endian.
+public final class BinaryResultFormat implements ResultSink.Format {
+
+    static final long MAGIC = 0x544C555345525642L; // "BVRESULT" read little-endian
+    static final int VERSION = 1;
+    static final int BYTES_PER_ROW = 4 + 4 + 1 + 8;
+
+    final FileChannel channel;
+    ByteBuffer block = ByteBuffer.allocateDirect(0);
+
+    public BinaryResultFormat(String path) throws IOException {
+        channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void header(String[] estimators, String valueColumn) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(valueColumn);
+        out.writeByte(estimators.length);
+        for (String name : estimators) out.writeUTF(name);
+        ByteBuffer header = ByteBuffer.allocate(16 + bytes.size()).order(ByteOrder.LITTLE_ENDIAN);
+        header.putLong(MAGIC).putInt(VERSION).putInt(bytes.size()).put(bytes.toByteArray());
+        header.flip();
+        while (header.hasRemaining()) channel.write(header);
+    }
+
+    @Override
+    public void write(ResultSink.Batch batch) throws IOException {
+        int rows = batch.size;
+        int bytes = 4 + rows * BYTES_PER_ROW;
+        if (block.capacity() < bytes) block = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        block.clear();
+        block.putInt(rows);
+        block.asIntBuffer().put(batch.sampleSize, 0, rows);
+        block.position(block.position() + 4 * rows);
+        block.asIntBuffer().put(batch.trial, 0, rows);
+        block.position(block.position() + 4 * rows);
+        block.put(batch.estimator, 0, rows);
+        block.asLongBuffer().put(batch.value, 0, rows);
+        block.position(block.position() + 8 * rows);
+        block.flip();
+        while (block.hasRemaining()) channel.write(block);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Replays every row of a file in write order
+    public static void read(Path path, ResultSink.RowConsumer consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile()), 1 << 20))) {
+            ByteBuffer fixed = ByteBuffer.wrap(in.readNBytes(16)).order(ByteOrder.LITTLE_ENDIAN);
+            if (fixed.remaining() < 16 || fixed.getLong() != MAGIC) throw new IOException("Not a result file: " + path);
+            int version = fixed.getInt();
+            if (version != VERSION) throw new IOException("Unsupported result file version " + version);
+            fixed.getInt();
+            in.readUTF();
+            String[] estimators = new String[in.readUnsignedByte()];
+            for (int i = 0; i < estimators.length; i++) estimators[i] = in.readUTF();
+
+            byte[] countBytes = new byte[4];
+            while (in.read(countBytes, 0, 1) == 1) {
+                in.readFully(countBytes, 1, 3);
+                int rows = ByteBuffer.wrap(countBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+                ByteBuffer block = ByteBuffer.wrap(in.readNBytes(rows * BYTES_PER_ROW)).order(ByteOrder.LITTLE_ENDIAN);
+                if (block.remaining() < rows * BYTES_PER_ROW) throw new EOFException("Truncated result block");
+                int trialAt = 4 * rows, estimatorAt = 8 * rows, valueAt = 9 * rows;
+                for (int i = 0; i < rows; i++) {
+                    consumer.accept(block.getInt(4 * i), block.getInt(trialAt + 4 * i),
+                            estimators[block.get(estimatorAt + i)], block.getLong(valueAt + 8 * i));
+                }
+            }
+        }
+    }
+}
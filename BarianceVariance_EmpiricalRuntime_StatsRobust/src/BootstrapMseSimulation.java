@@ -0,0 +1,170 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+// Java port of MSEVarEstimsSimulationsWithBootstrapedSEs.py: bias^2, variance and MSE of
+// S / a (S = sum of squared deviations of a row of n normals) over denominators a, with 95%
+// bootstrap CIs. S is computed once per row; a replicate draws row indices only and keeps
+// sum(S) and sum(S^2), from which every a follows (S / a scales the mean by 1/a and the variance
+// by 1/a^2), so one resample serves all denominators. Replicate b always uses stream (seed, b),
+// so results do not depend on the thread count.
+public class BootstrapMseSimulation {
+
+    static int n = 5;
+    static double trueVariance = 10;
+    static int simulations = 10000;
+    static int bootstrap = 200;
+    static long seed = 42L;
+    static double[] aValues = {3.5, 4.0, 4.5, 5.0, 5.5, 6.0, 6.5, 7.0, 7.5, 8.0, 8.5};
+
+    static final int ROW_CHUNKS = 64;
+    static final double Z_975 = 1.959963984540054;
+
+    public static final class Result {
+        public final double a;
+        public final double biasSq, variance, mse;
+        public final double[] biasSqCi, varianceCi, mseCi;
+
+        Result(double a, double biasSq, double variance, double[] biasSqCi, double[] varianceCi, double[] mseCi) {
+            this.a = a;
+            this.biasSq = biasSq;
+            this.variance = variance;
+            this.mse = biasSq + variance;
+            this.biasSqCi = biasSqCi;
+            this.varianceCi = varianceCi;
+            this.mseCi = mseCi;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--n=")) n = Integer.parseInt(value);
+            else if (arg.startsWith("--simulations=")) simulations = Integer.parseInt(value);
+            else if (arg.startsWith("--bootstrap=")) bootstrap = Integer.parseInt(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else throw new IllegalArgumentException("Unknown argument: " + arg);
+        }
+        String output = "./mse_bootstrap_n" + n + "_" + simulations + "sims_" + bootstrap + "boot.csv";
+
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        double[] sumSquared = sumSquaredDeviations(pool, n, simulations, trueVariance, seed);
+        Result[] results = run(pool, sumSquared, aValues, trueVariance, bootstrap, seed);
+        long elapsed = System.currentTimeMillis() - start;
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(output))) {
+            writer.write("a,Bias2,Bias2CiLow,Bias2CiHigh,Variance,VarianceCiLow,VarianceCiHigh,MSE,MSECiLow,MSECiHigh\n");
+            for (Result r : results) {
+                writer.write(r.a + "," + r.biasSq + "," + r.biasSqCi[0] + "," + r.biasSqCi[1] + ","
+                        + r.variance + "," + r.varianceCi[0] + "," + r.varianceCi[1] + ","
+                        + r.mse + "," + r.mseCi[0] + "," + r.mseCi[1] + "\n");
+            }
+        }
+        for (Result r : results) {
+            System.out.printf("a=%.1f  Bias^2 %.2f [%.2f, %.2f]  Variance %.2f [%.2f, %.2f]  MSE %.2f [%.2f, %.2f]%n",
+                    r.a, r.biasSq, r.biasSqCi[0], r.biasSqCi[1], r.variance, r.varianceCi[0], r.varianceCi[1],
+                    r.mse, r.mseCi[0], r.mseCi[1]);
+        }
+        System.out.println("Simulation complete in " + elapsed + " ms. Data written to " + output);
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+
+    // S_i = sum_j (X_ij - mean_i)^2 for `simulations` rows of n N(0, trueVariance) draws.
+    // Rows are generated in ROW_CHUNKS chunks, chunk c from its own stream.
+    public static double[] sumSquaredDeviations(ForkJoinPool pool, int n, int simulations, double trueVariance, long seed) {
+        double[] sumSquared = new double[simulations];
+        double sd = Math.sqrt(trueVariance);
+        List<Callable<Void>> tasks = new ArrayList<>(ROW_CHUNKS);
+        for (int c = 0; c < ROW_CHUNKS; c++) {
+            int from = (int) ((long) simulations * c / ROW_CHUNKS), to = (int) ((long) simulations * (c + 1) / ROW_CHUNKS);
+            RandomGenerator rng = stream(seed, c);
+            tasks.add(() -> {
+                double[] row = new double[n];
+                for (int i = from; i < to; i++) {
+                    for (int j = 0; j < n; j++) row[j] = sd * rng.nextGaussian();
+                    sumSquared[i] = VarianceKernels.centeredSumSq(row, 0, n);
+                }
+                return null;
+            });
+        }
+        pool.invokeAll(tasks);
+        return sumSquared;
+    }
+
+    public static Result[] run(ForkJoinPool pool, double[] sumSquared, double[] aValues, double trueVariance,
+                               int bootstrap, long seed) {
+        int m = sumSquared.length;
+        StreamingBariance observed = new StreamingBariance();
+        observed.addAll(sumSquared, 0, m);
+        double mean = observed.mean(), var = observed.variance();
+
+        // Replicate b: sum and sum of squares of (S - mean) over m resampled rows
+        double[] replicateSum = new double[bootstrap], replicateSumSq = new double[bootstrap];
+        int chunks = Math.min(bootstrap, 4 * pool.getParallelism());
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            int from = (int) ((long) bootstrap * c / chunks), to = (int) ((long) bootstrap * (c + 1) / chunks);
+            tasks.add(() -> {
+                for (int b = from; b < to; b++) {
+                    RandomGenerator rng = stream(seed, ROW_CHUNKS + b);
+                    double s = 0, q = 0;
+                    for (int i = 0; i < m; i++) {
+                        double d = sumSquared[rng.nextInt(m)] - mean;
+                        s += d;
+                        q += d * d;
+                    }
+                    replicateSum[b] = s;
+                    replicateSumSq[b] = q;
+                }
+                return null;
+            });
+        }
+        pool.invokeAll(tasks);
+
+        Result[] results = new Result[aValues.length];
+        for (int k = 0; k < aValues.length; k++) {
+            double a = aValues[k];
+            double bias = mean / a - trueVariance;
+            StreamingBariance biasSq = new StreamingBariance(), variance = new StreamingBariance(), mse = new StreamingBariance();
+            for (int b = 0; b < bootstrap; b++) {
+                double s = replicateSum[b], q = replicateSumSq[b];
+                double bootBias = (mean + s / m) / a - trueVariance;
+                double bootVariance = (q - s * s / m) / (m - 1) / (a * a);
+                biasSq.add(bootBias * bootBias);
+                variance.add(bootVariance);
+                mse.add(bootBias * bootBias + bootVariance);
+            }
+            results[k] = new Result(a, bias * bias, var / (a * a), meanCi(biasSq), meanCi(variance), meanCi(mse));
+        }
+        return results;
+    }
+
+    // mean +- t(0.975, B - 1) * sd / sqrt(B) over the replicates, as mean_ci in the Python script
+    static double[] meanCi(StreamingBariance replicates) {
+        long count = replicates.count();
+        double h = tQuantile975(count - 1) * Math.sqrt(replicates.variance() / count);
+        return new double[]{replicates.mean() - h, replicates.mean() + h};
+    }
+
+    // Cornish-Fisher expansion of the t quantile around z (Abramowitz & Stegun 26.7.5);
+    // agrees with scipy's t.ppf(0.975, df) to 1e-5 from df = 20 on
+    static double tQuantile975(double df) {
+        double z = Z_975, z2 = z * z;
+        double g1 = (z2 + 1) * z / 4;
+        double g2 = ((5 * z2 + 16) * z2 + 3) * z / 96;
+        double g3 = (((3 * z2 + 19) * z2 + 17) * z2 - 15) * z / 384;
+        double g4 = ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) * z / 92160;
+        return z + g1 / df + g2 / (df * df) + g3 / (df * df * df) + g4 / (df * df * df * df);
+    }
+
+    static RandomGenerator stream(long seed, long index) {
+        return RandomGeneratorFactory.of(GammaSampler.ALGORITHM).create(GammaSampler.mix(seed + 0x9E3779B97F4A7C15L * (index + 1)));
+    }
+}
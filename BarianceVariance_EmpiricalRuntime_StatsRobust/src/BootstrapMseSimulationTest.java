@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class BootstrapMseSimulationTest {
+
+    static final double[] A = {4.0, 5.0, 6.0, 7.0};
+
+    @Test
+    public void testSameResultsForAnyPoolSize() {
+        ForkJoinPool one = new ForkJoinPool(1), four = new ForkJoinPool(4);
+        try {
+            BootstrapMseSimulation.Result[] r1 = BootstrapMseSimulation.run(one,
+                    BootstrapMseSimulation.sumSquaredDeviations(one, 5, 2000, 10.0, 7L), A, 10.0, 50, 7L);
+            BootstrapMseSimulation.Result[] r4 = BootstrapMseSimulation.run(four,
+                    BootstrapMseSimulation.sumSquaredDeviations(four, 5, 2000, 10.0, 7L), A, 10.0, 50, 7L);
+            for (int k = 0; k < A.length; k++) {
+                assertEquals(r1[k].mse, r4[k].mse);
+                assertArrayEquals(r1[k].mseCi, r4[k].mseCi);
+                assertArrayEquals(r1[k].biasSqCi, r4[k].biasSqCi);
+            }
+        } finally {
+            one.shutdown();
+            four.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatchesNormalTheory() {
+        // n = 5, sigma^2 = 10: E[S] = 40, Var[S] = 800, MSE minimised at a = n + 1
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        double[] s = BootstrapMseSimulation.sumSquaredDeviations(pool, 5, 200000, 10.0, 42L);
+        BootstrapMseSimulation.Result[] r = BootstrapMseSimulation.run(pool, s, A, 10.0, 100, 42L);
+
+        assertEquals(0.0, r[0].biasSq, 0.05);
+        assertEquals(50.0, r[0].variance, 1.0);
+        assertTrue(r[2].mse < r[1].mse && r[2].mse < r[3].mse);
+        for (BootstrapMseSimulation.Result x : r) {
+            assertTrue(x.mseCi[0] <= x.mse && x.mse <= x.mseCi[1] + 1e-9 * x.mse, "a=" + x.a);
+        }
+    }
+
+    @Test
+    public void testTQuantile() {
+        assertEquals(2.085963447, BootstrapMseSimulation.tQuantile975(20), 1e-5);
+        assertEquals(1.971956544, BootstrapMseSimulation.tQuantile975(199), 1e-7);
+    }
+}
@@ -0,0 +1,187 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+// Sample-size sweep laid out along the cache hierarchy instead of the drivers' fixed grids:
+// sizes step geometrically (4 per octave) from 64 values to 4x the last-level cache, with 16
+// steps per octave within a factor of 2 of each cache boundary. Every (n, estimator) is timed
+// as the median of batches of back-to-back calls on the same n values, so an n that fits a
+// level runs from that level; every kernel is warmed up untimed before the first size. Writes <prefix>.csv with ns per call, elements/ns and GB/s, and
+// <prefix>_regimes.txt with per-regime log-log slopes and the size at which each estimator
+// falls to memory-bound throughput.
+public class CacheSweep {
+
+    static int minElements = 64;
+    static int coarseStepsPerOctave = 4;
+    static int fineStepsPerOctave = 16;
+    static double band = 2.0;
+    static long batchNs = 10_000_000L;
+    static int batches = 5;
+    // Memory-bound: throughput stays below this fraction of the in-cache peak from n on
+    static double memoryBoundFraction = 0.8;
+    static long seed = 42L;
+    static volatile double blackhole; // keeps the JIT from dropping unused estimator results
+
+    public static void main(String[] args) throws IOException {
+        String prefix = args.length > 0 && !args[0].startsWith("--") ? args[0] : "./variance_cache_sweep";
+        List<VarianceEstimator> estimators = VarianceEstimators.fromArgs(args, "Unbiased", "BarianceOpt", "UnbiasedOptim");
+        String[] names = VarianceEstimators.names(estimators);
+
+        CacheTopology caches = CacheTopology.detect();
+        long maxBytes = Math.min(4 * caches.lastLevel(), Runtime.getRuntime().maxMemory() / 3);
+        int maxElements = (int) Math.min(maxBytes / Double.BYTES, Integer.MAX_VALUE - 8);
+        int[] sizes = sweepSizes(caches, minElements, maxElements);
+        System.out.println("Caches: " + caches + "; " + sizes.length + " sample sizes from "
+                + sizes[0] + " to " + sizes[sizes.length - 1]);
+
+        double[] data = new double[maxElements];
+        GammaSampler.parallelFill(ForkJoinPool.commonPool(), data, 2.0, 2.0, seed, 64);
+
+        // Compile every kernel before the first (L1) sizes are timed
+        int warmUpElements = warmUpElements(caches, maxElements);
+        for (VarianceEstimator estimator : estimators) warmUp(estimator, data, warmUpElements);
+
+        double[][] nsPerCall = new double[names.length][sizes.length];
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(prefix + ".csv"))) {
+            writer.write("SampleSize,Bytes,Regime,Estimator,NsPerCall,ElementsPerNs,GBPerSec\n");
+            for (int i = 0; i < sizes.length; i++) {
+                int n = sizes[i];
+                long bytes = (long) n * Double.BYTES;
+                for (int e = 0; e < names.length; e++) {
+                    double ns = measure(estimators.get(e), data, n);
+                    nsPerCall[e][i] = ns;
+                    writer.write(n + "," + bytes + "," + caches.regime(bytes) + "," + names[e] + "," + ns + ","
+                            + n / ns + "," + bytes / ns + "\n");
+                }
+                System.out.printf("n=%d (%s)%n", n, caches.regime(bytes));
+            }
+        }
+
+        String report = report(caches, sizes, names, nsPerCall);
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(prefix + "_regimes.txt"))) {
+            writer.write(report);
+        }
+        System.out.print(report);
+        System.out.println("Sweep complete. Data written to " + prefix + ".csv and " + prefix + "_regimes.txt");
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+
+    // Half the L2 (or the only level) in values: large enough for the JIT to see the steady-state loop
+    static int warmUpElements(CacheTopology caches, int maxElements) {
+        long bytes = caches.size(Math.min(2, caches.levels())) / 2;
+        return (int) Math.max(minElements, Math.min(maxElements, bytes / Double.BYTES));
+    }
+
+    // Untimed calls for about batchNs * batches, so C1 and C2 have compiled the kernel before the sweep
+    static void warmUp(VarianceEstimator estimator, double[] data, int n) {
+        long end = System.nanoTime() + batchNs * batches;
+        double sink = 0;
+        while (System.nanoTime() < end) {
+            for (int c = 0; c < 16; c++) sink += estimator.estimate(data, 0, n);
+        }
+        blackhole = sink;
+    }
+
+    // Median ns per call over `batches` batches of about batchNs each. The number of calls per
+    // batch doubles until one untimed batch takes batchNs, which also warms this n
+    static double measure(VarianceEstimator estimator, double[] data, int n) {
+        int calls = 1;
+        while (batch(estimator, data, n, calls) < batchNs && calls < 1 << 30) calls *= 2;
+
+        double[] perCall = new double[batches];
+        for (int b = 0; b < batches; b++) perCall[b] = (double) batch(estimator, data, n, calls) / calls;
+        Arrays.sort(perCall);
+        return perCall[batches / 2];
+    }
+
+    private static long batch(VarianceEstimator estimator, double[] data, int n, int calls) {
+        double sink = 0;
+        long start = System.nanoTime();
+        for (int c = 0; c < calls; c++) sink += estimator.estimate(data, 0, n);
+        long elapsed = System.nanoTime() - start;
+        blackhole = sink;
+        return elapsed;
+    }
+
+    // Geometric sizes in [min, max], refined around every cache boundary (in doubles)
+    static int[] sweepSizes(CacheTopology caches, int min, int max) {
+        TreeSet<Integer> sizes = new TreeSet<>();
+        addGeometric(sizes, min, max, coarseStepsPerOctave);
+        for (int level = 1; level <= caches.levels(); level++) {
+            double boundary = (double) caches.size(level) / Double.BYTES;
+            addGeometric(sizes, (int) Math.max(min, boundary / band), (int) Math.min(max, boundary * band),
+                    fineStepsPerOctave);
+        }
+        sizes.add(max);
+        return sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void addGeometric(TreeSet<Integer> sizes, int from, int to, int stepsPerOctave) {
+        double step = Math.pow(2, 1.0 / stepsPerOctave);
+        for (double x = from; x <= to; x *= step) sizes.add((int) Math.round(x));
+    }
+
+    // Index of the first size from which the (3-point median smoothed) throughput stays below
+    // fraction x the peak over sizes of at most cachedBytes; -1 if it never does
+    static int memoryBoundIndex(double[] throughput, long[] bytes, long cachedBytes, double fraction) {
+        int m = throughput.length;
+        double[] smooth = new double[m];
+        for (int i = 0; i < m; i++) {
+            double a = throughput[Math.max(0, i - 1)], b = throughput[i], c = throughput[Math.min(m - 1, i + 1)];
+            smooth[i] = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+        }
+        double peak = 0;
+        for (int i = 0; i < m; i++) {
+            if (bytes[i] <= cachedBytes) peak = Math.max(peak, smooth[i]);
+        }
+        int first = -1;
+        for (int i = m - 1; i >= 0 && smooth[i] < fraction * peak; i--) first = i;
+        return first;
+    }
+
+    static String report(CacheTopology caches, int[] sizes, String[] names, double[][] nsPerCall) {
+        long[] bytes = Arrays.stream(sizes).mapToLong(n -> (long) n * Double.BYTES).toArray();
+        // The in-cache peak is taken over sizes that fit the second-to-last level (L2 on most machines)
+        long cachedBytes = caches.size(Math.max(1, caches.levels() - 1));
+        StringBuilder report = new StringBuilder();
+        report.append("Caches: ").append(caches).append('\n');
+        report.append(String.format("%-20s %-6s %6s %10s %14s %10s%n",
+                "Estimator", "Regime", "Sizes", "Slope", "ElementsPerNs", "GBPerSec"));
+        for (int e = 0; e < names.length; e++) {
+            double[] throughput = new double[sizes.length];
+            for (int i = 0; i < sizes.length; i++) throughput[i] = sizes[i] / nsPerCall[e][i];
+
+            // log(ns) ~ log(n) within each regime; slope 1 is linear scaling
+            for (int level = 1; level <= caches.levels() + 1; level++) {
+                String regime = level <= caches.levels() ? "L" + level : "DRAM";
+                LeastSquares ols = new LeastSquares(2);
+                double[] inRegime = new double[sizes.length];
+                int count = 0;
+                for (int i = 0; i < sizes.length; i++) {
+                    if (!caches.regime(bytes[i]).equals(regime)) continue;
+                    ols.add(new double[]{1, Math.log(sizes[i])}, Math.log(nsPerCall[e][i]), 1);
+                    inRegime[count++] = throughput[i];
+                }
+                if (count == 0) continue;
+                Arrays.sort(inRegime, 0, count);
+                double median = inRegime[count / 2];
+                LeastSquares.Fit fit = count > 2 ? ols.fit() : null;
+                report.append(String.format("%-20s %-6s %6d %10s %14.4f %10.3f%n", names[e], regime, count,
+                        fit == null ? "-" : String.format("%.3f", fit.coefficients[1]), median, median * Double.BYTES));
+            }
+
+            int bound = memoryBoundIndex(throughput, bytes, cachedBytes, memoryBoundFraction);
+            if (bound < 0) {
+                report.append(names[e]).append(": not memory-bound within the sweep\n");
+            } else {
+                report.append(String.format("%s: memory-bound from n = %d (%s, %s)%n", names[e], sizes[bound],
+                        CacheTopology.format(bytes[bound]), caches.regime(bytes[bound])));
+            }
+        }
+        return report.toString();
+    }
+}
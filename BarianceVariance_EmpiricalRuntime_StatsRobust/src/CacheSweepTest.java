@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+
+public class CacheSweepTest {
+
+    static final CacheTopology CACHES = new CacheTopology(new long[]{48L << 10, 2L << 20, 32L << 20}, "test");
+
+    @Test
+    public void testTopology() {
+        assertEquals(48L << 10, CacheTopology.parseSize("48K"));
+        assertEquals(300L << 20, CacheTopology.parseSize("307200K"));
+        assertArrayEquals(new long[]{32L << 10, 1L << 20}, CacheTopology.parseList("1M,32K"));
+        assertEquals("L1", CACHES.regime(48L << 10));
+        assertEquals("L2", CACHES.regime((48L << 10) + 8));
+        assertEquals("DRAM", CACHES.regime(33L << 20));
+        assertEquals("2M", CacheTopology.format(2L << 20));
+        assertEquals("1.5K", CacheTopology.format(1536));
+    }
+
+    @Test
+    public void testSweepIsDenseAtBoundaries() {
+        int[] sizes = CacheSweep.sweepSizes(CACHES, 64, 16 << 20);
+        assertEquals(64, sizes[0]);
+        assertEquals(16 << 20, sizes[sizes.length - 1]);
+        for (int i = 1; i < sizes.length; i++) assertTrue(sizes[i] > sizes[i - 1]);
+
+        // 16 steps per octave within a factor 2 of the L2 boundary (262,144 doubles), 4 elsewhere
+        int l2 = (2 << 20) / Double.BYTES;
+        long near = Arrays.stream(sizes).filter(n -> n >= l2 / 2 && n <= l2 * 2).count();
+        long far = Arrays.stream(sizes).filter(n -> n >= 1 << 7 && n <= 1 << 9).count();
+        assertTrue(near >= 32, "near L2: " + near);
+        assertTrue(far <= 9, "far from boundaries: " + far);
+    }
+
+    @Test
+    public void testMemoryBoundIndex() {
+        long[] bytes = {1 << 10, 1 << 12, 1 << 14, 1 << 16, 1 << 18, 1 << 20, 1 << 22, 1 << 24};
+        double[] throughput = {1.0, 2.0, 2.0, 1.9, 1.2, 0.9, 0.9, 0.8};
+        assertEquals(4, CacheSweep.memoryBoundIndex(throughput, bytes, 1 << 16, 0.8));
+
+        // A single noisy point above the threshold does not move the boundary
+        double[] noisy = {1.0, 2.0, 2.0, 1.9, 1.2, 1.0, 1.7, 0.8};
+        assertEquals(4, CacheSweep.memoryBoundIndex(noisy, bytes, 1 << 16, 0.8));
+
+        double[] flat = {1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0};
+        assertEquals(-1, CacheSweep.memoryBoundIndex(flat, bytes, 1 << 16, 0.8));
+    }
+}
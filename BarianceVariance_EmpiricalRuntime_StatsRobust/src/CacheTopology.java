@@ -0,0 +1,102 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+// Data cache sizes of cpu0, level by level, from /sys/devices/system/cpu/cpu0/cache (Linux).
+// Instruction caches are skipped. -Dbv.caches=48K,2M,32M overrides detection, e.g. off Linux;
+// with neither, a generic 32K/1M/32M hierarchy is assumed.
+public final class CacheTopology {
+
+    static final String SYSFS = "/sys/devices/system/cpu/cpu0/cache";
+    static final long[] FALLBACK = {32L << 10, 1L << 20, 32L << 20};
+
+    final long[] sizes; // bytes, index 0 = L1
+    final String source;
+
+    CacheTopology(long[] sizes, String source) {
+        this.sizes = sizes;
+        this.source = source;
+    }
+
+    public static CacheTopology detect() {
+        String override = System.getProperty("bv.caches");
+        if (override != null) return new CacheTopology(parseList(override), "-Dbv.caches");
+        long[] sysfs = readSysfs(new File(SYSFS));
+        if (sysfs.length > 0) return new CacheTopology(sysfs, SYSFS);
+        return new CacheTopology(FALLBACK, "default");
+    }
+
+    static long[] readSysfs(File dir) {
+        File[] entries = dir.listFiles((d, name) -> name.startsWith("index"));
+        if (entries == null) return new long[0];
+        TreeMap<Integer, Long> byLevel = new TreeMap<>();
+        for (File index : entries) {
+            try {
+                String type = read(index, "type");
+                if (type.equals("Instruction")) continue;
+                byLevel.merge(Integer.parseInt(read(index, "level")), parseSize(read(index, "size")), Math::max);
+            } catch (IOException | RuntimeException e) {
+                // unreadable entry: skip it, the remaining levels are still usable
+            }
+        }
+        return byLevel.values().stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static String read(File dir, String name) throws IOException {
+        return Files.readString(new File(dir, name).toPath()).trim();
+    }
+
+    // "48K", "2048K", "32M", "1G" or plain bytes
+    static long parseSize(String size) {
+        String s = size.trim().toUpperCase();
+        char unit = s.charAt(s.length() - 1);
+        int shift = unit == 'K' ? 10 : unit == 'M' ? 20 : unit == 'G' ? 30 : 0;
+        return Long.parseLong(shift == 0 ? s : s.substring(0, s.length() - 1)) << shift;
+    }
+
+    static long[] parseList(String list) {
+        List<Long> sizes = new ArrayList<>();
+        for (String s : list.split(",")) sizes.add(parseSize(s));
+        return sizes.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    public int levels() {
+        return sizes.length;
+    }
+
+    public long size(int level) {
+        return sizes[level - 1];
+    }
+
+    public long lastLevel() {
+        return sizes[sizes.length - 1];
+    }
+
+    // Smallest level whose capacity holds the working set: "L1", "L2", ... or "DRAM"
+    public String regime(long bytes) {
+        for (int i = 0; i < sizes.length; i++) {
+            if (bytes <= sizes[i]) return "L" + (i + 1);
+        }
+        return "DRAM";
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < sizes.length; i++) {
+            sb.append(i == 0 ? "" : ", ").append('L').append(i + 1).append(' ').append(format(sizes[i]));
+        }
+        return sb.append(" (").append(source).append(')').toString();
+    }
+
+    static String format(long bytes) {
+        String[] units = {"", "K", "M", "G"};
+        int u = 0;
+        while (u < 3 && bytes >= 1L << (10 * (u + 1))) u++;
+        if (bytes % (1L << (10 * u)) == 0) return (bytes >> (10 * u)) + units[u];
+        return String.format("%.1f%s", (double) bytes / (1L << (10 * u)), units[u]);
+    }
+}
@@ -0,0 +1,155 @@
+import java.nio.DoubleBuffer;
+
+// Single-pass bariance variants that bound the error of the sum/sumSq form in optimizedBariance.
+// bariance = 2 * (n * sumSq - sum^2) / (n * (n - 1)); once the mean is large against the spread,
+// n * sumSq and sum^2 agree in most of their digits and the subtraction cancels them away.
+public class CompensatedBariance {
+
+    static final int PAIRWISE_BLOCK = 128;
+
+    // Per-thread {sum, sumSq} for pairwiseSumBariance, so timed calls allocate nothing
+    private static final ThreadLocal<double[]> SUMS = ThreadLocal.withInitial(() -> new double[2]);
+
+    // Neumaier-compensated sum and sumSq, with the rounding error of every square (fma) folded
+    // into the compensation. The final n * sumSq - sum^2 is formed from the (hi, lo) pairs, so the
+    // result is about as accurate as a sum/sumSq pass in twice the working precision.
+    public static double neumaierBariance(double[] x) {
+        return neumaierBariance(x, 0, x.length);
+    }
+
+    public static double neumaierBariance(double[] x, int from, int to) {
+        double s = 0, cs = 0, q = 0, cq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x[i];
+            double t = s + v;
+            cs += Math.abs(s) >= Math.abs(v) ? (s - t) + v : (v - t) + s;
+            s = t;
+            double p = v * v;
+            double u = q + p;
+            cq += (q >= p ? (q - u) + p : (p - u) + q) + Math.fma(v, v, -p);
+            q = u;
+        }
+        return combine(to - from, s, cs, q, cq);
+    }
+
+    public static double neumaierBariance(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        double s = 0, cs = 0, q = 0, cq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x.get(i);
+            double t = s + v;
+            cs += Math.abs(s) >= Math.abs(v) ? (s - t) + v : (v - t) + s;
+            s = t;
+            double p = v * v;
+            double u = q + p;
+            cq += (q >= p ? (q - u) + p : (p - u) + q) + Math.fma(v, v, -p);
+            q = u;
+        }
+        return combine(to - from, s, cs, q, cq);
+    }
+
+    // 2 * (n * (q + cq) - (s + cs)^2) / (n * (n - 1)) with both products split into hi + lo;
+    // the hi parts are close when the data is badly conditioned, so their difference is exact
+    static double combine(int n, double s, double cs, double q, double cq) {
+        double a = n * q;
+        double aLo = Math.fma(n, q, -a) + n * cq;
+        double b = s * s;
+        double bLo = Math.fma(s, s, -b) + 2 * s * cs;
+        return 2 * ((a - b) + (aLo - bLo)) / (n * (n - 1.0));
+    }
+
+    // Blocked pairwise summation of sum and sumSq: rounding error grows with log n instead of n.
+    // The final subtraction is the plain one, so this helps at large n but not with a large mean.
+    public static double pairwiseSumBariance(double[] x) {
+        return pairwiseSumBariance(x, 0, x.length);
+    }
+
+    public static double pairwiseSumBariance(double[] x, int from, int to) {
+        int n = to - from;
+        double[] sums = SUMS.get();
+        pairwiseSums(x, from, to, sums);
+        double sum = sums[0], sumSq = sums[1];
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public static double pairwiseSumBariance(DoubleBuffer x) {
+        int n = x.remaining();
+        double[] sums = SUMS.get();
+        pairwiseSums(x, x.position(), x.limit(), sums);
+        double sum = sums[0], sumSq = sums[1];
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    // Stores {sum, sumSq} of [from, to) in out[0], out[1]. Each level keeps its left half in locals
+    // while the right half reuses out, so the recursion allocates nothing
+    static void pairwiseSums(double[] x, int from, int to, double[] out) {
+        if (to - from <= PAIRWISE_BLOCK) {
+            double sum = 0, sumSq = 0;
+            for (int i = from; i < to; i++) {
+                double v = x[i];
+                sum += v;
+                sumSq += v * v;
+            }
+            out[0] = sum;
+            out[1] = sumSq;
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        pairwiseSums(x, from, mid, out);
+        double sum = out[0], sumSq = out[1];
+        pairwiseSums(x, mid, to, out);
+        out[0] += sum;
+        out[1] += sumSq;
+    }
+
+    static void pairwiseSums(DoubleBuffer x, int from, int to, double[] out) {
+        if (to - from <= PAIRWISE_BLOCK) {
+            double sum = 0, sumSq = 0;
+            for (int i = from; i < to; i++) {
+                double v = x.get(i);
+                sum += v;
+                sumSq += v * v;
+            }
+            out[0] = sum;
+            out[1] = sumSq;
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        pairwiseSums(x, from, mid, out);
+        double sum = out[0], sumSq = out[1];
+        pairwiseSums(x, mid, to, out);
+        out[0] += sum;
+        out[1] += sumSq;
+    }
+
+    // Sum/sumSq of x - x[from]: variance is shift-invariant, and any data point is a far better
+    // guess of the mean than zero, so the cancellation shrinks to the spread of the data itself
+    public static double shiftedBariance(double[] x) {
+        return shiftedBariance(x, 0, x.length);
+    }
+
+    public static double shiftedBariance(double[] x, int from, int to) {
+        int n = to - from;
+        double k = x[from];
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x[i] - k;
+            sum += v;
+            sumSq += v * v;
+        }
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public static double shiftedBariance(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        int n = to - from;
+        double k = x.get(from);
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x.get(i) - k;
+            sum += v;
+            sumSq += v * v;
+        }
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+}
@@ -0,0 +1,35 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class CompensatedBarianceTest {
+
+    @Test
+    public void testKnownData() {
+        double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        double expected = 2 * VarianceKernels.unbiasedVariance(testData);
+        assertEquals(expected, CompensatedBariance.neumaierBariance(testData), 1e-12);
+        assertEquals(expected, CompensatedBariance.pairwiseSumBariance(testData), 1e-12);
+        assertEquals(expected, CompensatedBariance.shiftedBariance(testData), 1e-12);
+    }
+
+    @Test
+    public void testLargeOffsetKeepsAccuracy() {
+        Random rand = new Random(42L);
+        int n = 10000;
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0) + 1e6;
+        }
+        double exact = ShiftedGammaAccuracy.exactBariance(data);
+
+        // The plain form loses most of its digits at this offset; the compensated one must not
+        double plain = Math.abs(VarianceKernels.optimizedBariance(data) - exact) / exact;
+        double neumaier = Math.abs(CompensatedBariance.neumaierBariance(data) - exact) / exact;
+        double shifted = Math.abs(CompensatedBariance.shiftedBariance(data) - exact) / exact;
+        assertTrue(plain > 1e-6, "plain sum/sumSq unexpectedly accurate: " + plain);
+        assertTrue(neumaier < 1e-13, "Neumaier relative error " + neumaier);
+        assertTrue(shifted < 1e-10, "shifted relative error " + shifted);
+    }
+}
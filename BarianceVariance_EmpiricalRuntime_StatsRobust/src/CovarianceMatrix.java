@@ -0,0 +1,183 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// optimizedBariance's sum/sumSq form for p columns at once: co-bariance(j, k) =
+// 2 * (n * sum(xj * xk) - sum(xj) * sum(xk)) / (n * (n - 1)), i.e. twice the covariance, with the
+// bariance of each column on the diagonal. Columns are separate double[]s (column-major).
+//
+// Rows are split across a fork-join pool; each leaf walks its rows in ROW_BLOCK blocks, packs the
+// block of every column (shifted by the column's first value, as in shiftedBariance, and zero-padded
+// to a multiple of 4 columns) into one contiguous buffer, then accumulates the upper triangle
+// of the cross products panel by panel with a 2x4 register tile (VectorVariance's SIMD tile when
+// jdk.incubator.vector is present). Leaves return {cross, sums} arrays that are added on join.
+public final class CovarianceMatrix {
+
+    static final int ROW_BLOCK = 128;
+    static final int PANEL = 32;
+    // Leaf size in multiply-adds (rows x pairs of padded columns)
+    static final long LEAF_WORK = 1L << 22;
+    static final boolean SIMD = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private CovarianceMatrix() {
+    }
+
+    public static double[][] coBariance(double[][] columns) {
+        return coBariance(ForkJoinPool.commonPool(), columns);
+    }
+
+    public static double[][] coBariance(ForkJoinPool pool, double[][] columns) {
+        return coBariance(pool, columns, defaultThreshold(columns.length), SIMD);
+    }
+
+    public static double[][] covariance(ForkJoinPool pool, double[][] columns) {
+        double[][] c = coBariance(pool, columns);
+        for (double[] row : c) {
+            for (int k = 0; k < row.length; k++) row[k] /= 2;
+        }
+        return c;
+    }
+
+    // threshold: rows per leaf (Integer.MAX_VALUE runs on the calling thread); simd selects the
+    // Vector API tile and must only be true when jdk.incubator.vector is loaded
+    public static double[][] coBariance(ForkJoinPool pool, double[][] columns, int threshold, boolean simd) {
+        int p = columns.length;
+        int n = p == 0 ? 0 : columns[0].length;
+        for (double[] column : columns) {
+            if (column.length != n) throw new IllegalArgumentException("Columns differ in length: " + column.length + " vs " + n);
+        }
+        int pp = (p + 3) & ~3;
+        double[] shift = new double[p];
+        for (int c = 0; c < p && n > 0; c++) shift[c] = columns[c][0];
+
+        threshold = Math.max(threshold, ROW_BLOCK);
+        double[] acc = n <= threshold
+                ? accumulate(columns, shift, pp, 0, n, simd)
+                : pool.invoke(new CrossTask(columns, shift, pp, 0, n, threshold, simd));
+
+        double[][] result = new double[p][p];
+        double[] sums = Arrays.copyOfRange(acc, pp * pp, pp * pp + pp);
+        for (int j = 0; j < p; j++) {
+            for (int k = j; k < p; k++) {
+                double cross = acc[j * pp + k];
+                double v = (2.0 * cross / (n - 1)) - (2.0 * sums[j] * sums[k]) / (n * (n - 1.0));
+                result[j][k] = v;
+                result[k][j] = v;
+            }
+        }
+        return result;
+    }
+
+    static int defaultThreshold(int p) {
+        long pairs = Math.max(1, (long) p * (p + 1) / 2);
+        return (int) Math.max(ROW_BLOCK, LEAF_WORK / pairs / ROW_BLOCK * ROW_BLOCK);
+    }
+
+    // Reference for one pair: the same formula with a single scalar pass over two columns.
+    // coBariance(x, x) is optimizedBariance(x).
+    public static double coBariance(double[] x, double[] y) {
+        int n = x.length;
+        double sumX = 0, sumY = 0, sumXY = 0;
+        for (int i = 0; i < n; i++) {
+            sumX += x[i];
+            sumY += y[i];
+            sumXY += x[i] * y[i];
+        }
+        return (2.0 * sumXY / (n - 1)) - (2.0 * sumX * sumY) / (n * (n - 1.0));
+    }
+
+    // {sum((xj - sj) * (xk - sk)) for j <= k in a pp x pp array, sum(xj - sj) for each j} over rows [from, to)
+    static double[] accumulate(double[][] columns, double[] shift, int pp, int from, int to, boolean simd) {
+        int p = columns.length;
+        double[] acc = new double[pp * pp + pp];
+        double[] packed = new double[pp * ROW_BLOCK];
+        for (int start = from; start < to; start += ROW_BLOCK) {
+            int rows = Math.min(ROW_BLOCK, to - start);
+            for (int c = 0; c < p; c++) {
+                double[] column = columns[c];
+                double s = shift[c], sum = 0;
+                int off = c * ROW_BLOCK;
+                for (int r = 0; r < rows; r++) {
+                    double v = column[start + r] - s;
+                    packed[off + r] = v;
+                    sum += v;
+                }
+                if (rows < ROW_BLOCK) Arrays.fill(packed, off + rows, off + ROW_BLOCK, 0.0);
+                acc[pp * pp + c] += sum;
+            }
+            for (int jp = 0; jp < pp; jp += PANEL) {
+                int jEnd = Math.min(jp + PANEL, pp);
+                for (int kp = jp; kp < pp; kp += PANEL) {
+                    int kEnd = Math.min(kp + PANEL, pp);
+                    for (int j = jp; j < jEnd; j += 2) {
+                        // k from the 4-column group holding j, so every (j, k >= j) is covered
+                        for (int k = Math.max(kp, j & ~3); k < kEnd; k += 4) {
+                            if (simd) VectorVariance.crossProducts2x4(packed, ROW_BLOCK, j, k, acc, pp);
+                            else crossProducts2x4(packed, j, k, acc, pp);
+                        }
+                    }
+                }
+            }
+        }
+        return acc;
+    }
+
+    // acc[(j + a) * pp + k + b] += dot(column j + a, column k + b) over one packed block
+    static void crossProducts2x4(double[] packed, int j, int k, double[] acc, int pp) {
+        int a0 = j * ROW_BLOCK, a1 = a0 + ROW_BLOCK;
+        int b0 = k * ROW_BLOCK, b1 = b0 + ROW_BLOCK, b2 = b1 + ROW_BLOCK, b3 = b2 + ROW_BLOCK;
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0, c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        for (int r = 0; r < ROW_BLOCK; r++) {
+            double x0 = packed[a0 + r], x1 = packed[a1 + r];
+            double y0 = packed[b0 + r], y1 = packed[b1 + r], y2 = packed[b2 + r], y3 = packed[b3 + r];
+            c00 += x0 * y0;
+            c01 += x0 * y1;
+            c02 += x0 * y2;
+            c03 += x0 * y3;
+            c10 += x1 * y0;
+            c11 += x1 * y1;
+            c12 += x1 * y2;
+            c13 += x1 * y3;
+        }
+        int row0 = j * pp + k, row1 = row0 + pp;
+        acc[row0] += c00;
+        acc[row0 + 1] += c01;
+        acc[row0 + 2] += c02;
+        acc[row0 + 3] += c03;
+        acc[row1] += c10;
+        acc[row1 + 1] += c11;
+        acc[row1 + 2] += c12;
+        acc[row1 + 3] += c13;
+    }
+
+    @SuppressWarnings("serial")
+    static class CrossTask extends RecursiveTask<double[]> {
+        final double[][] columns;
+        final double[] shift;
+        final int pp, from, to, threshold;
+        final boolean simd;
+
+        CrossTask(double[][] columns, double[] shift, int pp, int from, int to, int threshold, boolean simd) {
+            this.columns = columns;
+            this.shift = shift;
+            this.pp = pp;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.simd = simd;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= threshold) return accumulate(columns, shift, pp, from, to, simd);
+            // Split on a block boundary so only the last leaf has a partial block
+            int mid = from + ((to - from) / 2 + ROW_BLOCK - 1) / ROW_BLOCK * ROW_BLOCK;
+            CrossTask left = new CrossTask(columns, shift, pp, from, mid, threshold, simd);
+            left.fork();
+            double[] right = new CrossTask(columns, shift, pp, mid, to, threshold, simd).compute();
+            double[] l = left.join();
+            for (int i = 0; i < l.length; i++) l[i] += right[i];
+            return l;
+        }
+    }
+}
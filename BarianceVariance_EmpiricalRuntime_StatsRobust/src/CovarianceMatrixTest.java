@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class CovarianceMatrixTest {
+
+    static double[][] columns(int p, int n, long seed) {
+        Random rand = new Random(seed);
+        double[][] cols = new double[p][n];
+        for (int i = 0; i < n; i++) {
+            double common = rand.nextGaussian();
+            for (int c = 0; c < p; c++) cols[c][i] = 100 * c + common + GammaSampler.nextGamma(rand, 2.0, 2.0);
+        }
+        return cols;
+    }
+
+    @Test
+    public void testMatchesPairLoop() {
+        // 7 columns (padded to 8) and 1000 rows (a partial last block)
+        double[][] cols = columns(7, 1000, 42L);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            double[][] sequential = CovarianceMatrix.coBariance(pool, cols, Integer.MAX_VALUE, false);
+            double[][] parallel = CovarianceMatrix.coBariance(pool, cols, 128, false);
+            for (int j = 0; j < cols.length; j++) {
+                for (int k = 0; k < cols.length; k++) {
+                    double expected = CovarianceMatrix.coBariance(cols[j], cols[k]);
+                    assertEquals(expected, sequential[j][k], 1e-9 * Math.abs(expected) + 1e-12, j + "," + k);
+                    assertEquals(sequential[j][k], parallel[j][k], 1e-12 * Math.abs(expected) + 1e-12);
+                }
+                assertEquals(VarianceKernels.optimizedBariance(cols[j]), sequential[j][j], 1e-9 * sequential[j][j]);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSimdTileMatchesScalar() {
+        if (!CovarianceMatrix.SIMD) return;
+        double[][] cols = columns(13, 3000, 7L);
+        double[][] scalar = CovarianceMatrix.coBariance(ForkJoinPool.commonPool(), cols, Integer.MAX_VALUE, false);
+        double[][] simd = CovarianceMatrix.coBariance(ForkJoinPool.commonPool(), cols, Integer.MAX_VALUE, true);
+        for (int j = 0; j < cols.length; j++) {
+            assertArrayEquals(scalar[j], simd[j], 1e-9 * Math.abs(scalar[j][j]));
+        }
+    }
+
+    @Test
+    public void testCovarianceAndErrors() {
+        double[] x = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++) y[i] = -3 * x[i];
+        double[][] cov = CovarianceMatrix.covariance(ForkJoinPool.commonPool(), new double[][]{x, y});
+        assertEquals(32.0 / 7, cov[0][0], 1e-12);
+        assertEquals(-96.0 / 7, cov[0][1], 1e-12);
+        assertEquals(cov[0][1], cov[1][0]);
+        assertEquals(288.0 / 7, cov[1][1], 1e-12);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CovarianceMatrix.coBariance(new double[][]{x, new double[3]}));
+    }
+}
@@ -0,0 +1,38 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+
+// SampleSize,Trial,Estimator,<value> rows, as the drivers have always written them
+public final class CsvResultFormat implements ResultSink.Format {
+
+    final BufferedWriter writer;
+    final StringBuilder line = new StringBuilder(64);
+    String[] estimators;
+
+    public CsvResultFormat(String path) throws IOException {
+        writer = new BufferedWriter(new FileWriter(path), 1 << 20);
+    }
+
+    @Override
+    public void header(String[] estimators, String valueColumn) throws IOException {
+        this.estimators = estimators;
+        writer.write("SampleSize,Trial,Estimator," + valueColumn + "\n");
+    }
+
+    @Override
+    public void write(ResultSink.Batch batch) throws IOException {
+        for (int i = 0; i < batch.size; i++) {
+            line.setLength(0);
+            line.append(batch.sampleSize[i]).append(',')
+                    .append(batch.trial[i]).append(',')
+                    .append(estimators[batch.estimator[i]]).append(',')
+                    .append(batch.value[i]).append('\n');
+            writer.append(line);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
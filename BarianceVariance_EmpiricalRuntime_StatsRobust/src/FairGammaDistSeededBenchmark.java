@@ -1,5 +1,5 @@
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.List;
 import java.util.Random;
 
 import org.junit.jupiter.api.Test;
@@ -9,111 +9,52 @@ public class FairGammaDistSeededBenchmark {
     static int[] sampleSizes = {100000};
     static int trials = 10000;
     static long seed = 42L;
+    static volatile double blackhole; // keeps the JIT from dropping unused estimator results
 
     public static void main(String[] args) throws IOException {
         Random rand = new Random(seed);
-        FileWriter writer = new FileWriter("./fair_variance_estimators_gamma_optimized.csv");
-        writer.write("SampleSize,Trial,Estimator,RuntimeNs\n");
+        List<VarianceEstimator> estimators = VarianceEstimators.fromArgs(args,
+                "UnbiasedOptim", "BiasedOptim", "PopulationOptim", "BarianceOptim", "AltBarianceOptim");
+        String[] names = VarianceEstimators.names(estimators);
+        ResultSink sink = ResultSink.open("./fair_variance_estimators_gamma_optimized.csv", names);
+        AllocationProbe probe = AllocationProbe.forRun("./fair_variance_estimators_gamma_optimized", names);
+        Instrumentation instruments = Instrumentation.forRun("./fair_variance_estimators_gamma_optimized", names);
+        SampleBuffers buffers = new SampleBuffers();
 
         for (int n : sampleSizes) {
+            instruments.beginBatch(n);
             System.out.println("Running for sample size: " + n);
+            double[] data = buffers.heap(n);
             for (int t = 0; t < trials; t++) {
-                double[] data = new double[n];
                 for (int i = 0; i < n; i++) {
-                    data[i] = nextGamma(rand, 2.0, 2.0);
+                    data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
                 }
 
-                writer.write(n + "," + t + ",UnbiasedOptim," + time(() -> optimizedUnbiasedVariance(data)) + "\n");
-                writer.write(n + "," + t + ",BiasedOptim," + time(() -> optimizedBiasedVariance(data)) + "\n");
-                writer.write(n + "," + t + ",PopulationOptim," + time(() -> optimizedPopulationVariance(data)) + "\n");
-                writer.write(n + "," + t + ",BarianceOptim," + time(() -> optimizedBariance(data)) + "\n");
-                writer.write(n + "," + t + ",AltBarianceOptim," + time(() -> optimizedAltBariance(data)) + "\n");
+                for (int e = 0; e < estimators.size(); e++) {
+                    instruments.begin(e);
+                    probe.begin();
+                    long ns = time(estimators.get(e), data);
+                    probe.end(n, t, e);
+                    instruments.end(e, ns);
+                    sink.record(n, t, e, ns);
+                }
             }
+            instruments.endBatch();
         }
 
-        writer.close();
+        sink.close();
+        probe.close();
+        instruments.close();
         System.out.println("Benchmark complete.");
         reportSystemInfo();
     }
 
-    public static long time(Runnable r) {
+    public static long time(VarianceEstimator estimator, double[] data) {
         long start = System.nanoTime();
-        r.run();
-        return System.nanoTime() - start;
-    }
-
-    public static double optimizedUnbiasedVariance(double[] x) {
-        int n = x.length;
-        double mean = 0.0, m2 = 0.0;
-        for (int i = 0; i < n; i++) {
-            double delta = x[i] - mean;
-            mean += delta / (i + 1);
-            m2 += delta * (x[i] - mean);
-        }
-        return m2 / (n - 1);
-    }
-
-    public static double optimizedBiasedVariance(double[] x) {
-        int n = x.length;
-        double mean = 0.0, m2 = 0.0;
-        for (int i = 0; i < n; i++) {
-            double delta = x[i] - mean;
-            mean += delta / (i + 1);
-            m2 += delta * (x[i] - mean);
-        }
-        return m2 / n;
-    }
-
-    public static double optimizedPopulationVariance(double[] x) {
-        return optimizedBiasedVariance(x);
-    }
-
-    public static double optimizedBariance(double[] x) {
-        int n = x.length;
-        double sum = 0.0, sumSq = 0.0;
-        for (double v : x) {
-            sum += v;
-            sumSq += v * v;
-        }
-        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1));
-    }
-
-    public static double optimizedAltBariance(double[] x) {
-        int n = x.length;
-        double sum = 0.0, sumSq = 0.0;
-        for (double v : x) {
-            sum += v;
-            sumSq += v * v;
-        }
-        return (sumSq - (sum * sum) / n) * 2 / (n - 1);
-    }
-
-
-    public static double nextGamma(Random rand, double shape, double scale) {
-        if (shape < 1) {
-            double c = 1.0 / shape;
-            double d = (1.0 - shape) * Math.pow(shape, shape / (1.0 - shape));
-            while (true) {
-                double u = rand.nextDouble();
-                double v = rand.nextDouble();
-                double z = -Math.log(u);
-                if (v <= Math.pow(z, shape - 1) * Math.exp(-z)) {
-                    return scale * z;
-                }
-            }
-        } else {
-            double d = shape - 1.0 / 3.0;
-            double c = 1.0 / Math.sqrt(9.0 * d);
-            while (true) {
-                double x = rand.nextGaussian();
-                double v = 1.0 + c * x;
-                if (v <= 0) continue;
-                v = v * v * v;
-                double u = rand.nextDouble();
-                if (u < 1 - 0.0331 * Math.pow(x, 4)) return scale * d * v;
-                if (Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) return scale * d * v;
-            }
-        }
+        double result = estimator.estimate(data);
+        long ns = System.nanoTime() - start;
+        blackhole = result;
+        return ns;
     }
 
     public static void reportSystemInfo() {
@@ -129,11 +70,11 @@ public class FairGammaDistSeededBenchmark {
     @Test
     public void testVarianceEstimators() {
         double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
-        double unbiased = optimizedUnbiasedVariance(testData);
-        double biased = optimizedBiasedVariance(testData);
-        double popVar = optimizedPopulationVariance(testData);
-        double barOpt = optimizedBariance(testData);
-        double altBar = optimizedAltBariance(testData);
+        double unbiased = VarianceEstimators.get("UnbiasedOptim").estimate(testData);
+        double biased = VarianceEstimators.get("BiasedOptim").estimate(testData);
+        double popVar = VarianceEstimators.get("PopulationOptim").estimate(testData);
+        double barOpt = VarianceEstimators.get("BarianceOptim").estimate(testData);
+        double altBar = VarianceEstimators.get("AltBarianceOptim").estimate(testData);
 
         assertApproximatelyEqual(biased, popVar, "Biased vs Population");
         assertApproximatelyEqual(unbiased, barOpt / 2, "Unbiased vs Optimized Barance");
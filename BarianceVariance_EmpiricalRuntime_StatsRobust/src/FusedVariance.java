@@ -0,0 +1,90 @@
+import java.nio.DoubleBuffer;
+
+// Every moment-based registered estimator is the centered sum of squares M2 over a denominator:
+// n - 1 or n, times 1 or 2 (the bariance and pairwise forms). Each estimator's Form is part of its
+// VarianceEstimators registration; the order-statistic estimators (RobustDispersion) are
+// registered without one. One pass of shifted sums (as in
+// CompensatedBariance.shiftedBariance) gives M2, and estimateAll derives all requested values
+// from it, so "all estimators" costs one read of the data instead of one or two per estimator.
+public final class FusedVariance {
+
+    public enum Form {
+        UNBIASED, BIASED, BARIANCE, BIASED_BARIANCE;
+
+        public double of(double m2, int n) {
+            switch (this) {
+                case UNBIASED: return m2 / (n - 1);
+                case BIASED: return m2 / n;
+                case BARIANCE: return 2 * m2 / (n - 1);
+                default: return 2 * m2 / n;
+            }
+        }
+    }
+
+    private FusedVariance() {
+    }
+
+    public static boolean supports(String name) {
+        return VarianceEstimators.names().contains(name) && VarianceEstimators.get(name).form() != null;
+    }
+
+    // The form each estimator was registered with in VarianceEstimators
+    public static Form form(String name) {
+        VarianceEstimator estimator = VarianceEstimators.get(name);
+        if (estimator.form() == null) {
+            throw new IllegalArgumentException("No fused form for estimator: " + name
+                    + (estimator.orderStatistic() ? " (order statistic)" : ""));
+        }
+        return estimator.form();
+    }
+
+    public static Form[] forms(String... names) {
+        Form[] forms = new Form[names.length];
+        for (int i = 0; i < names.length; i++) forms[i] = form(names[i]);
+        return forms;
+    }
+
+    public static double[] estimateAll(double[] x, String... names) {
+        double[] out = new double[names.length];
+        estimateAll(x, 0, x.length, forms(names), out);
+        return out;
+    }
+
+    public static void estimateAll(double[] x, int from, int to, Form[] forms, double[] out) {
+        double m2 = centeredSumSq(x, from, to);
+        for (int i = 0; i < forms.length; i++) out[i] = forms[i].of(m2, to - from);
+    }
+
+    public static void estimateAll(DoubleBuffer x, Form[] forms, double[] out) {
+        double m2 = centeredSumSq(x);
+        for (int i = 0; i < forms.length; i++) out[i] = forms[i].of(m2, x.remaining());
+    }
+
+    // M2 from sums of x - x[from]: sumSq - sum^2 / n, with the shift keeping the two terms small
+    public static double centeredSumSq(double[] x, int from, int to) {
+        int n = to - from;
+        if (n == 0) return 0;
+        double k = x[from];
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x[i] - k;
+            sum += v;
+            sumSq += v * v;
+        }
+        return sumSq - sum * sum / n;
+    }
+
+    public static double centeredSumSq(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        int n = to - from;
+        if (n == 0) return 0;
+        double k = x.get(from);
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x.get(i) - k;
+            sum += v;
+            sumSq += v * v;
+        }
+        return sumSq - sum * sum / n;
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.DoubleBuffer;
+import java.util.Random;
+
+public class FusedVarianceTest {
+
+    @Test
+    public void testMatchesEveryRegisteredEstimator() {
+        Random rand = new Random(42L);
+        double[] data = new double[2000];
+        for (int i = 0; i < data.length; i++) data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0) + 1000;
+
+        for (String name : VarianceEstimators.names()) {
+            VarianceEstimator e = VarianceEstimators.get(name);
+            assertTrue(e.form() != null ^ e.orderStatistic(), name + " needs a fused form or the order-statistic mark");
+        }
+        String[] names = VarianceEstimators.names().stream().filter(FusedVariance::supports).toArray(String[]::new);
+        assertTrue(names.length >= 20);
+        double[] fused = FusedVariance.estimateAll(data, names);
+        for (int i = 0; i < names.length; i++) {
+            double separate = VarianceEstimators.get(names[i]).estimate(data);
+            assertEquals(separate, fused[i], 1e-9 * separate, names[i]);
+        }
+    }
+
+    @Test
+    public void testRangeAndBuffer() {
+        double[] testData = {100.0, 2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        FusedVariance.Form[] forms = FusedVariance.forms("Unbiased", "PopulationVar", "BarianceOpt", "BiasedPairwise");
+        double[] out = new double[forms.length];
+        FusedVariance.estimateAll(testData, 1, testData.length, forms, out);
+        assertArrayEquals(new double[]{32.0 / 7, 4.0, 64.0 / 7, 8.0}, out, 1e-12);
+
+        double[] fromBuffer = new double[forms.length];
+        FusedVariance.estimateAll(DoubleBuffer.wrap(testData, 1, 8), forms, fromBuffer);
+        assertArrayEquals(out, fromBuffer, 1e-12);
+    }
+
+    @Test
+    public void testUnknownEstimator() {
+        assertThrows(IllegalArgumentException.class, () -> FusedVariance.form("Median"));
+        assertThrows(IllegalArgumentException.class, () -> FusedVariance.form("MadVariance"));
+        assertFalse(FusedVariance.supports("MadVariance"));
+        assertFalse(FusedVariance.supports("Median"));
+    }
+}
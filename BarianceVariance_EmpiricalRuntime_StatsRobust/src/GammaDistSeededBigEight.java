@@ -1,7 +1,8 @@
 import org.junit.jupiter.api.Test;
 
-import java.io.FileWriter;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 public class GammaDistSeededBigEight {
@@ -9,142 +10,91 @@ public class GammaDistSeededBigEight {
     static int[] sampleSizes = {100, 500, 1000,2000,3000,5000}; // Smaller sample sizes for testing
     static int trials = 1000; // Reduced trials for performance
     static long seed = 42L;
+    // --extended: pairwise estimators via PairwiseVariance, so the grid reaches 100k
+    static int[] extendedSampleSizes = {100, 500, 1000, 2000, 3000, 5000, 10000, 20000, 50000, 100000};
+    static int extendedTrials = 100;
+    static volatile double blackhole; // keeps the JIT from dropping unused estimator results
 
     public static void main(String[] args) throws IOException {
+        // --fused: also time FusedVariance computing all of the run's estimators in one pass (FusedAll)
+        boolean fused = Arrays.asList(args).contains("--fused");
+        if (Arrays.asList(args).contains("--extended")) {
+            run("./variance_estimators_gamma_big8_extended", extendedSampleSizes, extendedTrials,
+                    VarianceEstimators.fromArgs(args, "Unbiased", "Biased", "BarianceOpt", "FastPairwise",
+                            "ParallelPairwise", "PopulationVar", "AltBariance"), fused);
+        } else {
+            run("./variance_estimators_gamma_big8_1ktrials_6samples", sampleSizes, trials,
+                    VarianceEstimators.fromArgs(args, "Unbiased", "Biased", "BarianceOpt", "NaivePairwise",
+                            "UnbiasedPairwise", "BiasedPairwise", "PopulationVar", "AltBariance"), fused);
+        }
+    }
+
+    static void run(String output, int[] sizes, int trials, List<VarianceEstimator> estimators, boolean fused)
+            throws IOException {
         Random rand = new Random(seed);
-        FileWriter writer = new FileWriter("./variance_estimators_gamma_big8_1ktrials_6samples.csv");
-        writer.write("SampleSize,Trial,Estimator,RuntimeNs\n");
+        String[] names = VarianceEstimators.names(estimators);
+        FusedVariance.Form[] forms = fused ? FusedVariance.forms(names) : null;
+        double[] fusedOut = new double[names.length];
+        if (fused) {
+            names = Arrays.copyOf(names, names.length + 1);
+            names[names.length - 1] = "FusedAll";
+        }
+        ResultSink sink = ResultSink.open(output + ".csv", names);
+        AllocationProbe probe = AllocationProbe.forRun(output, names);
+        Instrumentation instruments = Instrumentation.forRun(output, names);
+        SampleBuffers buffers = new SampleBuffers();
 
-        for (int n : sampleSizes) {
+        for (int n : sizes) {
+            instruments.beginBatch(n);
             System.out.println("Running for sample size: " + n);
+            double[] data = buffers.heap(n);
             for (int t = 0; t < trials; t++) {
-                double[] data = new double[n];
                 for (int i = 0; i < n; i++) {
-                    data[i] = nextGamma(rand, 2.0, 2.0);
+                    data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
                 }
 
-                writer.write(n + "," + t + ",Unbiased," + time(() -> unbiasedVariance(data)) + "\n");
-                writer.write(n + "," + t + ",Biased," + time(() -> biasedVariance(data)) + "\n");
-                writer.write(n + "," + t + ",BarianceOpt," + time(() -> optimizedBariance(data)) + "\n");
-                writer.write(n + "," + t + ",NaivePairwise," + time(() -> naivePairwiseVariance(data)) + "\n");
-                writer.write(n + "," + t + ",UnbiasedPairwise," + time(() -> unbiasedPairwise(data)) + "\n");
-                writer.write(n + "," + t + ",BiasedPairwise," + time(() -> biasedPairwise(data)) + "\n");
-                writer.write(n + "," + t + ",PopulationVar," + time(() -> populationVariance(data)) + "\n");
-                writer.write(n + "," + t + ",AltBariance," + time(() -> altBariance(data)) + "\n");
+                for (int e = 0; e < estimators.size(); e++) {
+                    instruments.begin(e);
+                    probe.begin();
+                    long ns = time(estimators.get(e), data);
+                    probe.end(n, t, e);
+                    instruments.end(e, ns);
+                    sink.record(n, t, e, ns);
+                }
+                if (fused) {
+                    int e = estimators.size();
+                    instruments.begin(e);
+                    probe.begin();
+                    long ns = timeFused(forms, data, fusedOut);
+                    probe.end(n, t, e);
+                    instruments.end(e, ns);
+                    sink.record(n, t, e, ns);
+                }
             }
+            instruments.endBatch();
         }
 
-        writer.close();
+        sink.close();
+        probe.close();
+        instruments.close();
         System.out.println("Benchmark complete.");
         reportSystemInfo();
     }
 
-    public static long time(Runnable r) {
+    public static long time(VarianceEstimator estimator, double[] data) {
         long start = System.nanoTime();
-        r.run();
-        return System.nanoTime() - start;
-    }
-
-    public static double unbiasedVariance(double[] x) {
-        int n = x.length;
-        double mean = 0;
-        for (double v : x) mean += v;
-        mean /= n;
-
-        double sumSq = 0;
-        for (double v : x) sumSq += (v - mean) * (v - mean);
-        return sumSq / (n - 1);
-    }
-
-    public static double biasedVariance(double[] x) {
-        int n = x.length;
-        double mean = 0;
-        for (double v : x) mean += v;
-        mean /= n;
-
-        double sumSq = 0;
-        for (double v : x) sumSq += (v - mean) * (v - mean);
-        return sumSq / n;
-    }
-
-    public static double optimizedBariance(double[] x) {
-        int n = x.length;
-        double sum = 0, sumSq = 0;
-        for (double v : x) {
-            sum += v;
-            sumSq += v * v;
-        }
-        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1));
-    }
-
-    public static double altBariance(double[] x) {
-        int n = x.length;
-        double sum = 0, sumSq = 0;
-        for (double v : x) {
-            sum += v;
-            sumSq += v * v;
-        }
-        return (sumSq - (sum * sum) / n) * 2 / (n - 1);
-    }
-
-    public static double naivePairwiseVariance(double[] x) {
-        int n = x.length;
-        double sum = 0;
-        for (int i = 0; i < n; i++) {
-            for (int j = i + 1; j < n; j++) {
-                double diff = x[i] - x[j];
-                sum += diff * diff;
-            }
-        }
-        return sum * 2 / (n * (n - 1));
-    }
-
-    public static double unbiasedPairwise(double[] x) {
-        int n = x.length;
-        return naivePairwiseVariance(x);
-    }
-
-    public static double biasedPairwise(double[] x) {
-        return naivePairwiseVariance(x) * ((double)(x.length - 1) / x.length);
+        double result = estimator.estimate(data);
+        long ns = System.nanoTime() - start;
+        blackhole = result;
+        return ns;
     }
 
-    public static double populationVariance(double[] x) {
-        int n = x.length;
-        double mean = 0;
-        for (double v : x) mean += v;
-        mean /= n;
-
-        double sumSq = 0;
-        for (double v : x) sumSq += (v - mean) * (v - mean);
-        return sumSq / n;
-    }
-
-    // Gamma generator
-    public static double nextGamma(Random rand, double shape, double scale) {
-        if (shape < 1) {
-            double c = 1.0 / shape;
-            double d = (1.0 - shape) * Math.pow(shape, shape / (1.0 - shape));
-            while (true) {
-                double u = rand.nextDouble();
-                double v = rand.nextDouble();
-                double z = -Math.log(u);
-                if (v <= Math.pow(z, shape - 1) * Math.exp(-z)) {
-                    return scale * z;
-                }
-            }
-        } else {
-            double d = shape - 1.0 / 3.0;
-            double c = 1.0 / Math.sqrt(9.0 * d);
-            while (true) {
-                double x = rand.nextGaussian();
-                double v = 1.0 + c * x;
-                if (v <= 0) continue;
-                v = v * v * v;
-                double u = rand.nextDouble();
-                if (u < 1 - 0.0331 * Math.pow(x, 4)) return scale * d * v;
-                if (Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v))) return scale * d * v;
-            }
-        }
+    public static long timeFused(FusedVariance.Form[] forms, double[] data, double[] out) {
+        long start = System.nanoTime();
+        FusedVariance.estimateAll(data, 0, data.length, forms, out);
+        long ns = System.nanoTime() - start;
+        blackhole = out[0];
+        return ns;
     }
 
     public static void reportSystemInfo() {
@@ -163,14 +113,14 @@ public class GammaDistSeededBigEight {
         double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0}; // Known data
         int n = testData.length;
 
-        double unbiased = unbiasedVariance(testData);
-        double biased = biasedVariance(testData);
-        double barOpt = optimizedBariance(testData);
-        double altBar = altBariance(testData);
-        double pairwise = naivePairwiseVariance(testData);
-        double pairUnbiased = unbiasedPairwise(testData);
-        double pairBiased = biasedPairwise(testData);
-        double popVar = populationVariance(testData);
+        double unbiased = VarianceEstimators.get("Unbiased").estimate(testData);
+        double biased = VarianceEstimators.get("Biased").estimate(testData);
+        double barOpt = VarianceEstimators.get("BarianceOpt").estimate(testData);
+        double altBar = VarianceEstimators.get("AltBariance").estimate(testData);
+        double pairwise = VarianceEstimators.get("NaivePairwise").estimate(testData);
+        double pairUnbiased = VarianceEstimators.get("UnbiasedPairwise").estimate(testData);
+        double pairBiased = VarianceEstimators.get("BiasedPairwise").estimate(testData);
+        double popVar = VarianceEstimators.get("PopulationVar").estimate(testData);
 
         System.out.println("=== Variance Estimator Test ===");
         System.out.println("Unbiased variance:       " + unbiased);
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class GammaSamplerTest {
+
+    @Test
+    public void testSeedReproducible() {
+        double[] a = new double[1000];
+        double[] b = new double[1000];
+        new GammaSampler(42L).fill(a, 2.0, 2.0);
+        new GammaSampler(42L).fill(b, 2.0, 2.0);
+        assertArrayEquals(a, b);
+    }
+
+    @Test
+    public void testParallelFillIndependentOfPoolSize() {
+        double[] one = new double[100003];
+        double[] four = new double[100003];
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool quad = new ForkJoinPool(4);
+        try {
+            GammaSampler.parallelFill(single, one, 2.0, 2.0, 42L, 16);
+            GammaSampler.parallelFill(quad, four, 2.0, 2.0, 42L, 16);
+        } finally {
+            single.shutdown();
+            quad.shutdown();
+        }
+        assertArrayEquals(one, four);
+    }
+
+    @Test
+    public void testMomentsMatchGammaDistribution() {
+        int n = 1_000_000;
+        double[] data = new double[n];
+        GammaSampler sampler = new GammaSampler(42L);
+
+        // Gamma(shape=2, scale=2): mean 4, variance 8
+        sampler.fill(data, 2.0, 2.0);
+        assertEquals(4.0, VarianceKernels.optimizedUnbiasedVariance(data) / 2, 0.05);
+        double mean = 0;
+        for (double v : data) mean += v;
+        assertEquals(4.0, mean / n, 0.02);
+
+        // shape < 1 goes through the boost: mean 0.5 * 2 = 1, variance 0.5 * 4 = 2
+        sampler.fill(data, 0.5, 2.0);
+        assertEquals(2.0, VarianceKernels.optimizedUnbiasedVariance(data), 0.05);
+    }
+}
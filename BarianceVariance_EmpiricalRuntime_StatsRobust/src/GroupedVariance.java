@@ -0,0 +1,110 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Per-group unbiased variance and bariance for many small groups in one sweep over the values.
+// Segmented form: group g is x[offsets[g] .. offsets[g + 1]), offsets has groups + 1 entries.
+// Group-id form: x[i] belongs to group ids[i], in any order. Groups with fewer than two values
+// get NaN. Results go into caller-owned arrays (either may be null), and byGroupId keeps its
+// per-group state in a caller-owned array too, so repeated calls allocate nothing.
+public class GroupedVariance {
+
+    static final int PARALLEL_THRESHOLD = 1 << 16;
+    // Doubles of byGroupId state per group
+    public static final int STATE = 4;
+
+    public static void segmented(double[] x, int[] offsets, double[] variance, double[] bariance) {
+        segmented(x, offsets, 0, offsets.length - 1, variance, bariance);
+    }
+
+    // Groups [fromGroup, toGroup), each read once. Both outputs come from sums of x - x[from], the
+    // same shifted sums byGroupId keeps, so a large mean does not cancel and the two entry points agree
+    static void segmented(double[] x, int[] offsets, int fromGroup, int toGroup, double[] variance, double[] bariance) {
+        for (int g = fromGroup; g < toGroup; g++) {
+            int from = offsets[g], to = offsets[g + 1];
+            int n = to - from;
+            if (n < 2) {
+                if (variance != null) variance[g] = Double.NaN;
+                if (bariance != null) bariance[g] = Double.NaN;
+                continue;
+            }
+            double shift = x[from], s = 0, q = 0;
+            for (int i = from; i < to; i++) {
+                double v = x[i] - shift;
+                s += v;
+                q += v * v;
+            }
+            if (variance != null) variance[g] = (q - s * s / n) / (n - 1);
+            if (bariance != null) bariance[g] = (2.0 * q / (n - 1)) - (2.0 * s * s) / (n * (n - 1.0));
+        }
+    }
+
+    public static void parallelSegmented(double[] x, int[] offsets, double[] variance, double[] bariance) {
+        parallelSegmented(ForkJoinPool.commonPool(), x, offsets, variance, bariance);
+    }
+
+    public static void parallelSegmented(ForkJoinPool pool, double[] x, int[] offsets, double[] variance, double[] bariance) {
+        pool.invoke(new SegmentedTask(x, offsets, 0, offsets.length - 1, variance, bariance, PARALLEL_THRESHOLD));
+    }
+
+    // Allocates the per-group state on every call; repeated callers pass their own to the overload below
+    public static void byGroupId(double[] x, int[] ids, int groups, double[] variance, double[] bariance) {
+        byGroupId(x, ids, groups, variance, bariance, new double[STATE * groups]);
+    }
+
+    // One pass in input order. Per-group count and sums are kept relative to the group's first
+    // value, so large means do not cancel. state holds at least STATE * groups doubles, interleaved
+    // as (count, shift, sum, sumSq) so a group's update touches one cache line; it is cleared here.
+    public static void byGroupId(double[] x, int[] ids, int groups, double[] variance, double[] bariance, double[] state) {
+        Arrays.fill(state, 0, STATE * groups, 0.0);
+        for (int i = 0; i < x.length; i++) {
+            int k = STATE * ids[i];
+            if (state[k]++ == 0) state[k + 1] = x[i];
+            double v = x[i] - state[k + 1];
+            state[k + 2] += v;
+            state[k + 3] += v * v;
+        }
+        for (int g = 0; g < groups; g++) {
+            double n = state[STATE * g];
+            double s = state[STATE * g + 2], q = state[STATE * g + 3];
+            if (variance != null) variance[g] = n < 2 ? Double.NaN : (q - s * s / n) / (n - 1);
+            if (bariance != null) bariance[g] = n < 2 ? Double.NaN : (2.0 * q / (n - 1)) - (2.0 * s * s) / (n * (n - 1.0));
+        }
+    }
+
+    // Splits the group range where the element range halves, so a few huge groups and many tiny
+    // ones balance by work rather than by group count
+    @SuppressWarnings("serial")
+    static class SegmentedTask extends RecursiveAction {
+        final double[] x;
+        final int[] offsets;
+        final int fromGroup, toGroup;
+        final double[] variance, bariance;
+        final int threshold;
+
+        SegmentedTask(double[] x, int[] offsets, int fromGroup, int toGroup, double[] variance, double[] bariance,
+                      int threshold) {
+            this.x = x;
+            this.offsets = offsets;
+            this.fromGroup = fromGroup;
+            this.toGroup = toGroup;
+            this.variance = variance;
+            this.bariance = bariance;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int from = offsets[fromGroup], to = offsets[toGroup];
+            if (to - from <= threshold || toGroup - fromGroup <= 1) {
+                segmented(x, offsets, fromGroup, toGroup, variance, bariance);
+                return;
+            }
+            int split = Arrays.binarySearch(offsets, fromGroup, toGroup, (from + to) >>> 1);
+            if (split < 0) split = -split - 1;
+            split = Math.min(Math.max(split, fromGroup + 1), toGroup - 1);
+            invokeAll(new SegmentedTask(x, offsets, fromGroup, split, variance, bariance, threshold),
+                    new SegmentedTask(x, offsets, split, toGroup, variance, bariance, threshold));
+        }
+    }
+}
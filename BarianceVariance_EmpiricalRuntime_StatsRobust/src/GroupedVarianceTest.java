@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class GroupedVarianceTest {
+
+    @Test
+    public void testSegmentedMatchesPerGroupKernels() {
+        Random rand = new Random(42L);
+        int groups = 2000;
+        int[] offsets = new int[groups + 1];
+        for (int g = 0; g < groups; g++) {
+            offsets[g + 1] = offsets[g] + (g % 97 == 0 ? 1 : 2 + rand.nextInt(g % 10 == 0 ? 3000 : 20));
+        }
+        double[] data = new double[offsets[groups]];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+        }
+
+        double[] variance = new double[groups], bariance = new double[groups];
+        double[] parVariance = new double[groups], parBariance = new double[groups];
+        double[] idVariance = new double[groups], idBariance = new double[groups];
+        int[] ids = new int[data.length];
+        for (int g = 0; g < groups; g++) {
+            for (int i = offsets[g]; i < offsets[g + 1]; i++) ids[i] = g;
+        }
+
+        GroupedVariance.segmented(data, offsets, variance, bariance);
+        GroupedVariance.byGroupId(data, ids, groups, idVariance, idBariance);
+        // A reused state array is cleared by the call
+        double[] state = new double[GroupedVariance.STATE * groups];
+        double[] reusedVariance = new double[groups], reusedBariance = new double[groups];
+        GroupedVariance.byGroupId(data, ids, groups, reusedVariance, reusedBariance, state);
+        GroupedVariance.byGroupId(data, ids, groups, reusedVariance, reusedBariance, state);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            pool.invoke(new GroupedVariance.SegmentedTask(data, offsets, 0, groups, parVariance, parBariance, 256));
+        } finally {
+            pool.shutdown();
+        }
+
+        for (int g = 0; g < groups; g++) {
+            int from = offsets[g], to = offsets[g + 1];
+            if (to - from < 2) {
+                assertTrue(Double.isNaN(variance[g]) && Double.isNaN(bariance[g]) && Double.isNaN(idBariance[g]));
+                continue;
+            }
+            double var = VarianceKernels.unbiasedVariance(data, from, to);
+            assertEquals(var, variance[g], 1e-12 * var, "variance of group " + g);
+            assertEquals(2 * var, bariance[g], 1e-10 * var, "bariance of group " + g);
+            assertEquals(idBariance[g], bariance[g], 0.0);
+            assertEquals(variance[g], parVariance[g], 0.0);
+            assertEquals(bariance[g], parBariance[g], 0.0);
+            assertEquals(var, idVariance[g], 1e-10 * var);
+            assertEquals(2 * var, idBariance[g], 1e-10 * var);
+            assertEquals(idVariance[g], reusedVariance[g], 0.0);
+            assertEquals(idBariance[g], reusedBariance[g], 0.0);
+        }
+    }
+
+    @Test
+    public void testLargeMeanAgreesAcrossEntryPoints() {
+        Random rand = new Random(5L);
+        int groups = 300;
+        int[] offsets = new int[groups + 1];
+        for (int g = 0; g < groups; g++) offsets[g + 1] = offsets[g] + 2 + rand.nextInt(500);
+        double[] data = new double[offsets[groups]];
+        int[] ids = new int[data.length];
+        for (int g = 0; g < groups; g++) {
+            for (int i = offsets[g]; i < offsets[g + 1]; i++) {
+                data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0) + 1e6;
+                ids[i] = g;
+            }
+        }
+
+        double[] variance = new double[groups], bariance = new double[groups];
+        double[] idVariance = new double[groups], idBariance = new double[groups];
+        GroupedVariance.segmented(data, offsets, variance, bariance);
+        GroupedVariance.byGroupId(data, ids, groups, idVariance, idBariance);
+        for (int g = 0; g < groups; g++) {
+            // At an offset of 1e6 the unshifted sum/sumSq form keeps only a few significant digits
+            double var = VarianceKernels.unbiasedVariance(data, offsets[g], offsets[g + 1]);
+            assertEquals(idBariance[g], bariance[g], 0.0, "group " + g);
+            assertEquals(idVariance[g], variance[g], 0.0, "group " + g);
+            assertEquals(2 * var, bariance[g], 1e-8 * var, "group " + g);
+            assertEquals(2 * variance[g], bariance[g], 1e-12 * var, "group " + g);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+// Explains where runtime goes, next to the timing CSV. Enabled with -Dbv.instrument=jfr, perf or
+// jfr,perf; otherwise every call is a no-op.
+//  jfr:  a JFR recording (profile settings plus every JIT compilation and deoptimization) with
+//        one SampleSizeBatch event per sample size and one EstimatorBatch event per (estimator, n)
+//        carrying the timed total. Written to <prefix>.jfr; compilations and deoptimizations of
+//        estimator code are extracted to <prefix>_jit.csv, tagged with the sample size running.
+//  perf: one PerfCounters session per (estimator, n), enabled only inside that estimator's timed
+//        regions, so data generation is not counted. Totals go to <prefix>_perf.csv. Events can
+//        be set with -Dbv.perf.events (default PerfCounters.DEFAULT_EVENTS).
+public final class Instrumentation implements AutoCloseable {
+
+    // Classes whose compilations count as estimator code in the _jit.csv extract
+    static final Set<String> ESTIMATOR_CLASSES = Set.of("VarianceKernels", "VarianceEstimators",
+            "CompensatedBariance", "PairwiseVariance", "ParallelVariance", "VectorVariance",
+            "PrimitiveVariance", "StreamingBariance", "GroupedVariance", "SlidingBariance",
+            "Selection", "RobustDispersion", "FusedVariance");
+
+    @Name("bariance.SampleSizeBatch")
+    @Label("Sample Size Batch")
+    @Category("Bariance")
+    static final class SampleSizeBatch extends Event {
+        @Label("Sample Size")
+        int sampleSize;
+    }
+
+    @Name("bariance.EstimatorBatch")
+    @Label("Estimator Batch")
+    @Category("Bariance")
+    static final class EstimatorBatch extends Event {
+        @Label("Sample Size")
+        int sampleSize;
+        @Label("Estimator")
+        String estimator;
+        @Label("Timed Regions")
+        int regions;
+        @Label("Timed Nanoseconds")
+        long totalNs;
+    }
+
+    final String prefix;
+    final String[] estimators;
+    final Recording recording;
+    final String perfEvents;
+    BufferedWriter perfOut;
+
+    SampleSizeBatch batch;
+    PerfCounters[] sessions;
+    final long[] totalNs;
+    final int[] regions;
+    int sampleSize;
+
+    private Instrumentation(String prefix, String[] estimators, boolean jfr, boolean perf) throws IOException {
+        this.prefix = prefix;
+        this.estimators = estimators;
+        totalNs = new long[estimators.length];
+        regions = new int[estimators.length];
+        if (jfr) {
+            try {
+                recording = new Recording(Configuration.getConfiguration("profile"));
+            } catch (ParseException e) {
+                throw new IOException(e);
+            }
+            recording.enable("jdk.Compilation").withThreshold(Duration.ZERO);
+            recording.enable("jdk.Deoptimization");
+            recording.enable(SampleSizeBatch.class);
+            recording.enable(EstimatorBatch.class);
+            recording.setName(prefix);
+            recording.start();
+        } else {
+            recording = null;
+        }
+        perfEvents = perf ? System.getProperty("bv.perf.events", PerfCounters.DEFAULT_EVENTS) : null;
+        if (perf) {
+            perfOut = new BufferedWriter(new FileWriter(prefix + "_perf.csv"));
+            perfOut.write("SampleSize,Estimator,Event,Count,Unit,RunningPct\n");
+        }
+    }
+
+    public static Instrumentation forRun(String prefix, String... estimators) throws IOException {
+        List<String> modes = List.of(System.getProperty("bv.instrument", "").split(","));
+        return new Instrumentation(prefix, estimators, modes.contains("jfr"), modes.contains("perf"));
+    }
+
+    public void beginBatch(int sampleSize) {
+        this.sampleSize = sampleSize;
+        if (recording != null) {
+            batch = new SampleSizeBatch();
+            batch.sampleSize = sampleSize;
+            batch.begin();
+        }
+        if (perfOut != null) {
+            sessions = new PerfCounters[estimators.length];
+            try {
+                for (int e = 0; e < estimators.length; e++) sessions[e] = PerfCounters.attach(perfEvents);
+            } catch (IOException ex) {
+                System.err.println("Perf counters disabled: " + ex.getMessage());
+                closeSessions();
+                closePerf();
+            }
+        }
+    }
+
+    public void begin(int estimatorId) {
+        if (sessions == null) return;
+        try {
+            sessions[estimatorId].enable();
+        } catch (IOException e) {
+            throw new IllegalStateException("perf control failed", e);
+        }
+    }
+
+    public void end(int estimatorId, long ns) {
+        totalNs[estimatorId] += ns;
+        regions[estimatorId]++;
+        if (sessions == null) return;
+        try {
+            sessions[estimatorId].disable();
+        } catch (IOException e) {
+            throw new IllegalStateException("perf control failed", e);
+        }
+    }
+
+    public void endBatch() throws IOException {
+        if (recording != null) {
+            for (int e = 0; e < estimators.length; e++) {
+                EstimatorBatch event = new EstimatorBatch();
+                event.sampleSize = sampleSize;
+                event.estimator = estimators[e];
+                event.regions = regions[e];
+                event.totalNs = totalNs[e];
+                event.commit();
+            }
+            batch.commit();
+        }
+        if (sessions != null) {
+            for (int e = 0; e < estimators.length; e++) {
+                for (String[] count : sessions[e].finish()) {
+                    perfOut.write(sampleSize + "," + estimators[e] + "," + String.join(",", count) + "\n");
+                }
+            }
+            closeSessions();
+        }
+        Arrays.fill(totalNs, 0);
+        Arrays.fill(regions, 0);
+    }
+
+    private void closeSessions() {
+        if (sessions == null) return;
+        for (PerfCounters session : sessions) {
+            if (session == null) continue;
+            try {
+                session.close();
+            } catch (IOException ignored) {
+            }
+        }
+        sessions = null;
+    }
+
+    private void closePerf() {
+        try {
+            perfOut.close();
+        } catch (IOException ignored) {
+        }
+        perfOut = null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSessions();
+        if (perfOut != null) {
+            closePerf();
+            System.out.println("Perf counters written to " + prefix + "_perf.csv");
+        }
+        if (recording != null) {
+            Path jfr = Path.of(prefix + ".jfr");
+            recording.stop();
+            recording.dump(jfr);
+            recording.close();
+            int rows = writeJit(jfr, prefix + "_jit.csv");
+            System.out.println("JFR recording written to " + jfr + ", " + rows + " estimator JIT events to "
+                    + prefix + "_jit.csv");
+        }
+    }
+
+    // One row per compilation or deoptimization of estimator code. TimeMs is relative to the first
+    // sample size batch; SampleSize is the batch running at the time (empty outside batches).
+    static int writeJit(Path jfr, String path) throws IOException {
+        List<RecordedEvent> events = RecordingFile.readAllEvents(jfr);
+        List<RecordedEvent> batches = new ArrayList<>();
+        for (RecordedEvent e : events) {
+            if (e.getEventType().getName().equals("bariance.SampleSizeBatch")) batches.add(e);
+        }
+        Instant origin = batches.stream().map(RecordedEvent::getStartTime).min(Instant::compareTo)
+                .orElse(events.isEmpty() ? Instant.EPOCH : events.get(0).getStartTime());
+
+        int rows = 0;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(path))) {
+            writer.write("TimeMs,SampleSize,Event,Method,CompileLevel,Osr,CodeSize,DurationUs,Detail\n");
+            for (RecordedEvent e : events) {
+                String type = e.getEventType().getName();
+                boolean compile = type.equals("jdk.Compilation");
+                if (!compile && !type.equals("jdk.Deoptimization")) continue;
+                RecordedMethod method = e.getValue("method");
+                if (method == null || !isEstimatorCode(method.getType().getName())) continue;
+
+                Instant time = e.getStartTime();
+                String n = "";
+                for (RecordedEvent b : batches) {
+                    if (!time.isBefore(b.getStartTime()) && time.isBefore(b.getEndTime())) {
+                        n = Integer.toString(b.getInt("sampleSize"));
+                        break;
+                    }
+                }
+                String name = method.getType().getName() + "." + method.getName() + method.getDescriptor();
+                writer.write(String.format("%.3f,%s,%s,\"%s\",%s,%s,%s,%s,%s%n",
+                        Duration.between(origin, time).toNanos() / 1e6, n,
+                        compile ? "Compilation" : "Deoptimization", name,
+                        compile ? Integer.toString(e.getInt("compileLevel")) : "",
+                        compile ? Boolean.toString(e.getBoolean("isOsr")) : "",
+                        compile ? Long.toString(e.getLong("codeSize")) : "",
+                        compile ? Long.toString(e.getDuration().toNanos() / 1000) : "",
+                        compile ? (e.hasField("succeded") && !e.getBoolean("succeded") ? "failed" : "")
+                                : e.getString("reason") + "/" + e.getString("action")));
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    static boolean isEstimatorCode(String className) {
+        int nested = className.indexOf('$');
+        return ESTIMATOR_CLASSES.contains(nested < 0 ? className : className.substring(0, nested));
+    }
+
+    // Re-extracts the JIT table from an existing recording: Instrumentation <file.jfr> [output.csv]
+    public static void main(String[] args) throws IOException {
+        String jfr = args[0];
+        String out = args.length > 1 ? args[1] : jfr.replaceAll("\\.jfr$", "") + "_jit.csv";
+        System.out.println(writeJit(Path.of(jfr), out) + " estimator JIT events written to " + out);
+    }
+}
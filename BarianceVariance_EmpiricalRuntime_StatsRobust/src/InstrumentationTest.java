@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class InstrumentationTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testJfrBatches() throws Exception {
+        String prefix = dir.resolve("run").toString();
+        String[] names = {"Unbiased", "BarianceOpt"};
+        System.setProperty("bv.instrument", "jfr");
+        Instrumentation instruments;
+        try {
+            instruments = Instrumentation.forRun(prefix, names);
+        } finally {
+            System.clearProperty("bv.instrument");
+        }
+
+        double[] data = new double[1000];
+        for (int i = 0; i < data.length; i++) data[i] = i % 17;
+        for (int n : new int[]{100, 1000}) {
+            instruments.beginBatch(n);
+            for (int t = 0; t < 50; t++) {
+                for (int e = 0; e < names.length; e++) {
+                    instruments.begin(e);
+                    VarianceEstimators.get(names[e]).estimate(data, 0, n);
+                    instruments.end(e, 10);
+                }
+            }
+            instruments.endBatch();
+        }
+        instruments.close();
+
+        List<RecordedEvent> batches = RecordingFile.readAllEvents(Path.of(prefix + ".jfr")).stream()
+                .filter(e -> e.getEventType().getName().equals("bariance.EstimatorBatch")).toList();
+        assertEquals(4, batches.size());
+        for (RecordedEvent e : batches) {
+            assertEquals(50, e.getInt("regions"));
+            assertEquals(500, e.getLong("totalNs"));
+        }
+        assertTrue(Files.readAllLines(Path.of(prefix + "_jit.csv")).get(0).startsWith("TimeMs,SampleSize,Event,Method"));
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        Instrumentation instruments = Instrumentation.forRun("./never_written", "Unbiased");
+        instruments.beginBatch(10);
+        instruments.begin(0);
+        instruments.end(0, 1);
+        instruments.endBatch();
+        instruments.close();
+        assertFalse(new File("./never_written.jfr").exists());
+        assertFalse(new File("./never_written_perf.csv").exists());
+    }
+
+    @Test
+    public void testEstimatorCode() {
+        assertTrue(Instrumentation.isEstimatorCode("VarianceKernels"));
+        assertTrue(Instrumentation.isEstimatorCode("FusedVariance"));
+        assertTrue(Instrumentation.isEstimatorCode("FusedVariance$Form"));
+        assertTrue(Instrumentation.isEstimatorCode("VarianceEstimators$$Lambda/0x0000000801001a00"));
+        assertFalse(Instrumentation.isEstimatorCode("GammaSampler"));
+    }
+}
@@ -0,0 +1,98 @@
+// Weighted ordinary least squares accumulated through the normal equations, so observations can
+// be streamed (or come pre-binned with a weight) without keeping a design matrix. k is small here
+// (intercept, log n, one dummy per estimator), so the k x k solve is done by Gauss-Jordan.
+public final class LeastSquares {
+
+    final int k;
+    final double[][] xtx;
+    final double[] xty;
+    double yty, weight;
+
+    public LeastSquares(int k) {
+        this.k = k;
+        xtx = new double[k][k];
+        xty = new double[k];
+    }
+
+    public void add(double[] x, double y, double w) {
+        for (int i = 0; i < k; i++) {
+            double wx = w * x[i];
+            if (wx == 0) continue;
+            for (int j = 0; j < k; j++) xtx[i][j] += wx * x[j];
+            xty[i] += wx * y;
+        }
+        yty += w * y * y;
+        weight += w;
+    }
+
+    public double weight() {
+        return weight;
+    }
+
+    // Coefficients, classical standard errors and R^2; null if X'WX is singular
+    public Fit fit() {
+        double[][] a = new double[k][2 * k];
+        for (int i = 0; i < k; i++) {
+            System.arraycopy(xtx[i], 0, a[i], 0, k);
+            a[i][k + i] = 1.0;
+        }
+        for (int col = 0; col < k; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < k; r++) if (Math.abs(a[r][col]) > Math.abs(a[pivot][col])) pivot = r;
+            if (Math.abs(a[pivot][col]) < 1e-12 * Math.max(1.0, weight)) return null;
+            double[] tmp = a[col];
+            a[col] = a[pivot];
+            a[pivot] = tmp;
+            double inv = 1.0 / a[col][col];
+            for (int j = 0; j < 2 * k; j++) a[col][j] *= inv;
+            for (int r = 0; r < k; r++) {
+                if (r == col || a[r][col] == 0) continue;
+                double f = a[r][col];
+                for (int j = 0; j < 2 * k; j++) a[r][j] -= f * a[col][j];
+            }
+        }
+
+        double[] beta = new double[k];
+        for (int i = 0; i < k; i++) {
+            for (int j = 0; j < k; j++) beta[i] += a[i][k + j] * xty[j];
+        }
+        // SSR = y'Wy - 2 b'X'Wy + b'X'WXb = y'Wy - b'X'Wy at the solution
+        double ssr = yty;
+        for (int i = 0; i < k; i++) ssr -= beta[i] * xty[i];
+        ssr = Math.max(ssr, 0.0);
+        double meanY = xty[0] / weight; // column 0 is the intercept
+        double sst = yty - weight * meanY * meanY;
+        double sigma2 = ssr / (weight - k);
+
+        double[] se = new double[k];
+        for (int i = 0; i < k; i++) se[i] = Math.sqrt(sigma2 * a[i][k + i]);
+        return new Fit(beta, se, sst > 0 ? 1 - ssr / sst : Double.NaN, weight);
+    }
+
+    public static final class Fit {
+        public final double[] coefficients, standardErrors;
+        public final double rSquared, observations;
+
+        Fit(double[] coefficients, double[] standardErrors, double rSquared, double observations) {
+            this.coefficients = coefficients;
+            this.standardErrors = standardErrors;
+            this.rSquared = rSquared;
+            this.observations = observations;
+        }
+
+        // Two-sided p-value of coefficient i from the normal approximation (df is in the thousands)
+        public double pValue(int i) {
+            return erfc(Math.abs(coefficients[i] / standardErrors[i]) / Math.sqrt(2));
+        }
+    }
+
+    // Numerical Recipes erfc (Chebyshev fit, relative error < 1.2e-7)
+    static double erfc(double x) {
+        double z = Math.abs(x);
+        double t = 1 / (1 + 0.5 * z);
+        double r = t * Math.exp(-z * z - 1.26551223 + t * (1.00002368 + t * (0.37409196 + t * (0.09678418
+                + t * (-0.18628806 + t * (0.27886807 + t * (-1.13520398 + t * (1.48851587
+                + t * (-0.82215223 + t * 0.17087277)))))))));
+        return x >= 0 ? r : 2 - r;
+    }
+}
@@ -1,63 +1,61 @@
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 public class MainNormalDistUnseeded {
 
     static int[] sampleSizes = {1000, 5000, 10000, 20000, 100000, 200000, 400000, 1000000, 5000000};
+    static volatile double blackhole; // keeps the JIT from dropping unused estimator results
 
     public static void main(String[] args) throws IOException {
         int trials = 100;
+        boolean offHeap = Arrays.asList(args).contains("--offheap");
         Random rand = new Random();
 
-        FileWriter writer = new FileWriter("./variance_bariance_runtime.csv");
-        writer.write("SampleSize,Trial,Estimator,RuntimeNs\n");
+        List<VarianceEstimator> estimators = VarianceEstimators.fromArgs(args, "Unbiased", "BarianceOpt");
+        String[] names = VarianceEstimators.names(estimators);
+
+        ResultSink sink = ResultSink.open("./variance_bariance_runtime.csv", names);
+        AllocationProbe probe = AllocationProbe.forRun("./variance_bariance_runtime", names);
+        Instrumentation instruments = Instrumentation.forRun("./variance_bariance_runtime", names);
+        SampleBuffers buffers = new SampleBuffers();
 
         for (int n : sampleSizes) {
+            instruments.beginBatch(n);
+            double[] heap = offHeap ? null : buffers.heap(n);
+            DoubleBuffer direct = offHeap ? buffers.offHeap(n) : null;
             for (int t = 0; t < trials; t++) {
-                double[] data = new double[n];
                 for (int i = 0; i < n; i++) {
-                    data[i] = rand.nextGaussian();
+                    double v = rand.nextGaussian();
+                    if (offHeap) direct.put(i, v);
+                    else heap[i] = v;
                 }
 
-                long start1 = System.nanoTime();
-                double var = unbiasedVariance(data);
-                long end1 = System.nanoTime();
-                writer.write(n + "," + t + ",Unbiased," + (end1 - start1) + "\n");
-
-                long start2 = System.nanoTime();
-                double bar = optimizedBariance(data);
-                long end2 = System.nanoTime();
-                writer.write(n + "," + t + ",BarianceOpt," + (end2 - start2) + "\n");
+                for (int e = 0; e < estimators.size(); e++) {
+                    VarianceEstimator estimator = estimators.get(e);
+                    instruments.begin(e);
+                    probe.begin();
+                    long start = System.nanoTime();
+                    double result = offHeap ? estimator.estimate(direct) : estimator.estimate(heap);
+                    long end = System.nanoTime();
+                    probe.end(n, t, e);
+                    instruments.end(e, end - start);
+                    sink.record(n, t, e, end - start);
+                    blackhole = result;
+                }
             }
+            instruments.endBatch();
         }
 
-        writer.close();
+        sink.close();
+        probe.close();
+        instruments.close();
         System.out.println("Benchmark complete. Data written to variance_bariance_runtime.csv");
         reportSystemInfo();
     }
 
-    public static double unbiasedVariance(double[] x) {
-        int n = x.length;
-        double mean = 0;
-        for (double v : x) mean += v;
-        mean /= n;
-
-        double sumSq = 0;
-        for (double v : x) sumSq += (v - mean) * (v - mean);
-        return sumSq / (n - 1);
-    }
-
-    public static double optimizedBariance(double[] x) {
-        int n = x.length;
-        double sum = 0, sumSq = 0;
-        for (double v : x) {
-            sum += v;
-            sumSq += v * v;
-        }
-        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1));
-    }
-
     public static void reportSystemInfo() {
         System.out.println("=== Java Runtime Benchmark Environment ===");
         System.out.println("OS: " + System.getProperty("os.name") + " " + System.getProperty("os.version"));
@@ -0,0 +1,68 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+// Bariance vs. variance on a memory-mapped SampleStore; the file is written once and reused,
+// so every run (and every estimator) sees identical data regardless of heap size. The third
+// column times StreamingBariance over the mapped windows (Welford plus sum/sumSq in one pass), so
+// it is recorded as StreamingAccumulate rather than under a registry kernel's name.
+public class OutOfCoreGammaDistSeeded {
+
+    static long n = 1_000_000_000L;
+    static int trials = 10;
+    static long seed = 42L;
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : "./gamma_samples.bin");
+        long size = args.length > 1 ? Long.parseLong(args[1]) : n;
+
+        if (!matches(path, size)) {
+            System.out.println("Writing " + size + " Gamma samples to " + path + " ...");
+            long start = System.currentTimeMillis();
+            SampleStore.writeGamma(path, size, 2.0, 2.0, seed);
+            System.out.println("Written in " + (System.currentTimeMillis() - start) + " ms");
+        }
+
+        ResultSink sink = ResultSink.open("./variance_bariance_runtime_out_of_core.csv",
+                "Unbiased", "BarianceOpt", "StreamingAccumulate");
+
+        int sampleSize = Math.toIntExact(size); // SampleSize column is an int
+        try (SampleStore store = SampleStore.open(path)) {
+            StreamingBariance acc = new StreamingBariance();
+            for (int t = 0; t < trials; t++) {
+                long start1 = System.nanoTime();
+                double var = store.unbiasedVariance();
+                long end1 = System.nanoTime();
+                sink.record(sampleSize, t, 0, end1 - start1);
+
+                long start2 = System.nanoTime();
+                double bar = store.bariance();
+                long end2 = System.nanoTime();
+                sink.record(sampleSize, t, 1, end2 - start2);
+
+                acc.reset();
+                long start3 = System.nanoTime();
+                store.accumulate(acc);
+                long end3 = System.nanoTime();
+                sink.record(sampleSize, t, 2, end3 - start3);
+
+                System.out.println("  Trial " + t + ": variance=" + var + ", bariance=" + bar
+                        + ", welford=" + acc.variance());
+            }
+        }
+
+        sink.close();
+        System.out.println("Benchmark complete. Data written to variance_bariance_runtime_out_of_core.csv");
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+
+    static boolean matches(Path path, long size) throws IOException {
+        if (!Files.exists(path)) return false;
+        try (SampleStore store = SampleStore.open(path)) {
+            return store.size() == size && store.seed == seed;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
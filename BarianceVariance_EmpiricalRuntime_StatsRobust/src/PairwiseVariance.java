@@ -0,0 +1,97 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Alternatives to VarianceKernels.naivePairwiseVariance, all returning
+// sum_{i<j} (x_i - x_j)^2 * 2 / (n * (n - 1)).
+public class PairwiseVariance {
+
+    static final int BLOCK = 512;
+
+    public static double fastPairwiseVariance(double[] x) {
+        return fastPairwiseVariance(x, 0, x.length);
+    }
+
+    // O(n): sum_{i<j} (x_i - x_j)^2 = n * sum (x_i - mean)^2, centered for accuracy
+    public static double fastPairwiseVariance(double[] x, int from, int to) {
+        int n = to - from;
+        return VarianceKernels.centeredSumSq(x, from, to) * 2 / (n - 1); // = n * sumSq * 2 / (n * (n - 1))
+    }
+
+    public static double blockedPairwiseVariance(double[] x) {
+        return blockedPairwiseVariance(x, 0, x.length);
+    }
+
+    // Literal O(n^2) pair sum, tiled so both blocks of a tile stay in L1
+    public static double blockedPairwiseVariance(double[] x, int from, int to) {
+        int n = to - from;
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        return pairSum(x, from, to, 0, blocks) * 2 / (n * (n - 1.0));
+    }
+
+    public static double parallelPairwiseVariance(double[] x) {
+        return parallelPairwiseVariance(ForkJoinPool.commonPool(), x);
+    }
+
+    public static double parallelPairwiseVariance(ForkJoinPool pool, double[] x) {
+        return parallelPairwiseVariance(pool, x, 0, x.length);
+    }
+
+    public static double parallelPairwiseVariance(ForkJoinPool pool, double[] x, int from, int to) {
+        int n = to - from;
+        int blocks = (n + BLOCK - 1) / BLOCK;
+        return pool.invoke(new PairSumTask(x, from, to, 0, blocks)) * 2 / (n * (n - 1.0));
+    }
+
+    // Sum over all pairs i < j in [from, to) whose row i lies in block rows [fromBlock, toBlock)
+    static double pairSum(double[] x, int from, int to, int fromBlock, int toBlock) {
+        double total = 0;
+        for (int bi = fromBlock; bi < toBlock; bi++) {
+            int iStart = from + bi * BLOCK, iEnd = Math.min(iStart + BLOCK, to);
+            for (int jStart = iStart; jStart < to; jStart += BLOCK) {
+                int jEnd = Math.min(jStart + BLOCK, to);
+                double s0 = 0, s1 = 0;
+                for (int i = iStart; i < iEnd; i++) {
+                    double xi = x[i];
+                    int j = Math.max(jStart, i + 1);
+                    for (; j + 1 < jEnd; j += 2) {
+                        double d0 = xi - x[j];
+                        double d1 = xi - x[j + 1];
+                        s0 += d0 * d0;
+                        s1 += d1 * d1;
+                    }
+                    if (j < jEnd) {
+                        double d = xi - x[j];
+                        s0 += d * d;
+                    }
+                }
+                total += s0 + s1;
+            }
+        }
+        return total;
+    }
+
+    // Early block rows carry more pairs; halving the block range lets work stealing balance them
+    @SuppressWarnings("serial")
+    static class PairSumTask extends RecursiveTask<Double> {
+        final double[] x;
+        final int from, to, fromBlock, toBlock;
+
+        PairSumTask(double[] x, int from, int to, int fromBlock, int toBlock) {
+            this.x = x;
+            this.from = from;
+            this.to = to;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+
+        @Override
+        protected Double compute() {
+            if (toBlock - fromBlock <= 1) return pairSum(x, from, to, fromBlock, toBlock);
+            int mid = (fromBlock + toBlock) >>> 1;
+            PairSumTask left = new PairSumTask(x, from, to, fromBlock, mid);
+            left.fork();
+            double right = new PairSumTask(x, from, to, mid, toBlock).compute();
+            return left.join() + right;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class PairwiseVarianceTest {
+
+    @Test
+    public void testKernelsMatchNaivePairwise() {
+        Random rand = new Random(42L);
+        int n = 1537; // spans a partial trailing block
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+        }
+
+        double naive = VarianceKernels.naivePairwiseVariance(data);
+        double tolerance = 1e-12 * naive;
+        assertEquals(naive, PairwiseVariance.fastPairwiseVariance(data), tolerance);
+        assertEquals(naive, PairwiseVariance.blockedPairwiseVariance(data), tolerance);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            assertEquals(naive, PairwiseVariance.parallelPairwiseVariance(pool, data), tolerance);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testKnownData() {
+        double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        double expected = 2 * 32.0 / 7;
+        assertEquals(expected, PairwiseVariance.fastPairwiseVariance(testData), 1e-12);
+        assertEquals(expected, PairwiseVariance.blockedPairwiseVariance(testData), 1e-12);
+    }
+}
@@ -0,0 +1,118 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Fork-join versions of the Welford and sum/sumSq estimators. Arrays are halved until a chunk
+// is at most `threshold` long; arrays no longer than the threshold take the scalar path.
+public class ParallelVariance {
+
+    static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    public static double parallelUnbiasedVariance(double[] x) {
+        return parallelUnbiasedVariance(ForkJoinPool.commonPool(), x);
+    }
+
+    public static double parallelBariance(double[] x) {
+        return parallelBariance(ForkJoinPool.commonPool(), x);
+    }
+
+    public static double parallelUnbiasedVariance(ForkJoinPool pool, double[] x) {
+        return parallelUnbiasedVariance(pool, x, DEFAULT_THRESHOLD);
+    }
+
+    public static double parallelBariance(ForkJoinPool pool, double[] x) {
+        return parallelBariance(pool, x, DEFAULT_THRESHOLD);
+    }
+
+    public static double parallelUnbiasedVariance(ForkJoinPool pool, double[] x, int threshold) {
+        return parallelUnbiasedVariance(pool, x, 0, x.length, threshold);
+    }
+
+    public static double parallelBariance(ForkJoinPool pool, double[] x, int threshold) {
+        return parallelBariance(pool, x, 0, x.length, threshold);
+    }
+
+    public static double parallelUnbiasedVariance(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        if (to - from <= threshold) return VarianceKernels.optimizedUnbiasedVariance(x, from, to);
+        return moments(pool, x, from, to, threshold).unbiasedVariance();
+    }
+
+    public static double parallelBariance(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        if (to - from <= threshold) return VarianceKernels.optimizedBariance(x, from, to);
+        int n = to - from;
+        double[] sums = sums(pool, x, from, to, threshold);
+        double sum = sums[0], sumSq = sums[1];
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public static PartialMoments moments(ForkJoinPool pool, double[] x, int threshold) {
+        return moments(pool, x, 0, x.length, threshold);
+    }
+
+    public static PartialMoments moments(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        return pool.invoke(new MomentsTask(x, from, to, threshold));
+    }
+
+    // {sum, sumSq}; partial sums simply add up
+    public static double[] sums(ForkJoinPool pool, double[] x, int threshold) {
+        return sums(pool, x, 0, x.length, threshold);
+    }
+
+    public static double[] sums(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        return pool.invoke(new SumsTask(x, from, to, threshold));
+    }
+
+    @SuppressWarnings("serial")
+    static class MomentsTask extends RecursiveTask<PartialMoments> {
+        final double[] x;
+        final int from, to, threshold;
+
+        MomentsTask(double[] x, int from, int to, int threshold) {
+            this.x = x;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected PartialMoments compute() {
+            if (to - from <= threshold) return PartialMoments.of(x, from, to);
+            int mid = (from + to) >>> 1;
+            MomentsTask left = new MomentsTask(x, from, mid, threshold);
+            left.fork();
+            PartialMoments right = new MomentsTask(x, mid, to, threshold).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    static class SumsTask extends RecursiveTask<double[]> {
+        final double[] x;
+        final int from, to, threshold;
+
+        SumsTask(double[] x, int from, int to, int threshold) {
+            this.x = x;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= threshold) {
+                double sum = 0.0, sumSq = 0.0;
+                for (int i = from; i < to; i++) {
+                    double v = x[i];
+                    sum += v;
+                    sumSq += v * v;
+                }
+                return new double[]{sum, sumSq};
+            }
+            int mid = (from + to) >>> 1;
+            SumsTask left = new SumsTask(x, from, mid, threshold);
+            left.fork();
+            double[] right = new SumsTask(x, mid, to, threshold).compute();
+            double[] l = left.join();
+            return new double[]{l[0] + right[0], l[1] + right[1]};
+        }
+    }
+}
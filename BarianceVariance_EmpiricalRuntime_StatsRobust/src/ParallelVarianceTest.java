@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelVarianceTest {
+
+    @Test
+    public void testChunkedMergeMatchesScalar() {
+        Random rand = new Random(42L);
+        int n = 100003;
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+        }
+        double var = VarianceKernels.unbiasedVariance(data);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Small threshold forces a deep merge tree
+            assertEquals(var, ParallelVariance.parallelUnbiasedVariance(pool, data, 64), 1e-12 * var);
+            assertEquals(2 * var, ParallelVariance.parallelBariance(pool, data, 64), 1e-11 * var);
+            assertEquals(n, ParallelVariance.moments(pool, data, 64).count());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testBelowThresholdFallsBackToScalar() {
+        double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        assertEquals(VarianceKernels.optimizedUnbiasedVariance(testData),
+                ParallelVariance.parallelUnbiasedVariance(testData));
+        assertEquals(VarianceKernels.optimizedBariance(testData),
+                ParallelVariance.parallelBariance(testData));
+    }
+
+    @Test
+    public void testMergeWithEmptyPartial() {
+        double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        PartialMoments all = PartialMoments.of(testData, 0, testData.length);
+        PartialMoments merged = PartialMoments.of(testData, 0, 3).merge(PartialMoments.of(testData, 3, 3))
+                .merge(PartialMoments.of(testData, 3, testData.length));
+        assertEquals(all.unbiasedVariance(), merged.unbiasedVariance(), 1e-12);
+        assertEquals(4.0, merged.biasedVariance(), 1e-12);
+    }
+}
@@ -0,0 +1,55 @@
+// (count, mean, M2) of a chunk. Chunks are combined with the pairwise update of
+// Chan, Golub and LeVeque, which keeps the accuracy of a single Welford pass.
+public final class PartialMoments {
+
+    final long count;
+    final double mean;
+    final double m2;
+
+    PartialMoments(long count, double mean, double m2) {
+        this.count = count;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    // Welford update as in VarianceKernels.optimizedUnbiasedVariance
+    public static PartialMoments of(double[] x, int from, int to) {
+        double mean = 0.0, m2 = 0.0;
+        for (int i = from; i < to; i++) {
+            double delta = x[i] - mean;
+            mean += delta / (i - from + 1);
+            m2 += delta * (x[i] - mean);
+        }
+        return new PartialMoments(to - from, mean, m2);
+    }
+
+    public PartialMoments merge(PartialMoments other) {
+        if (other.count == 0) return this;
+        if (count == 0) return other;
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        double mergedMean = mean + delta * other.count / n;
+        double mergedM2 = m2 + other.m2 + delta * delta * ((double) count * other.count / n);
+        return new PartialMoments(n, mergedMean, mergedM2);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double unbiasedVariance() {
+        return m2 / (count - 1);
+    }
+
+    public double biasedVariance() {
+        return m2 / count;
+    }
+
+    public double bariance() {
+        return 2.0 * m2 / (count - 1);
+    }
+}
@@ -0,0 +1,143 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Linux perf counters for this JVM, switched on and off around timed regions. Runs
+// `perf stat -p <pid> --delay=-1 --control=fifo:ctl,ack -- cat`: counting starts disabled,
+// enable()/disable() go through the control fifo and wait for perf's ack, and closing cat's
+// stdin ends the session, at which point perf prints one total per event. Counts are
+// process-wide, so JIT and GC threads running inside an enabled window are included.
+final class PerfCounters implements AutoCloseable {
+
+    static final String DEFAULT_EVENTS =
+            "cycles,instructions,cache-references,cache-misses,branch-instructions,branch-misses";
+
+    final Process perf;
+    final File dir;
+    final RandomAccessFile ctl, ack;
+    final BufferedReader stdout;
+    final OutputStream stdin;
+
+    private PerfCounters(String events) throws IOException {
+        dir = Files.createTempDirectory("bv-perf").toFile();
+        File ctlFifo = new File(dir, "ctl"), ackFifo = new File(dir, "ack");
+        try {
+            mkfifo(ctlFifo);
+            mkfifo(ackFifo);
+        } catch (IOException e) {
+            deleteDir();
+            throw e;
+        }
+        try {
+            perf = new ProcessBuilder("perf", "stat", "-x,", "-e", events, "--delay=-1",
+                    "--control=fifo:" + ctlFifo + "," + ackFifo,
+                    "-p", Long.toString(ProcessHandle.current().pid()), "--", "cat").start();
+        } catch (IOException e) {
+            deleteDir();
+            throw new IOException("perf is not available: " + e.getMessage(), e);
+        }
+        stdin = perf.getOutputStream();
+        stdout = new BufferedReader(new InputStreamReader(perf.getInputStream(), StandardCharsets.UTF_8));
+
+        RandomAccessFile ctlFile = null, ackFile = null;
+        try {
+            // cat only runs once perf has attached; if perf failed, stdout closes instead of echoing,
+            // or the write already fails when perf exited before starting cat
+            boolean ready;
+            try {
+                stdin.write("ready\n".getBytes(StandardCharsets.US_ASCII));
+                stdin.flush();
+                ready = "ready".equals(stdout.readLine());
+            } catch (IOException e) {
+                ready = false;
+            }
+            if (!ready) {
+                String error = new String(perf.getErrorStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+                throw new IOException("perf stat failed: " + error);
+            }
+            // Read-write opens of a fifo do not block, so a missing peer cannot hang the driver here
+            ctlFile = new RandomAccessFile(ctlFifo, "rw");
+            ackFile = new RandomAccessFile(ackFifo, "rw");
+        } catch (IOException | RuntimeException e) {
+            perf.destroy();
+            deleteDir();
+            if (ctlFile != null) {
+                try {
+                    ctlFile.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw e;
+        }
+        ctl = ctlFile;
+        ack = ackFile;
+    }
+
+    static PerfCounters attach(String events) throws IOException {
+        return new PerfCounters(events);
+    }
+
+    void enable() throws IOException {
+        command("enable\n");
+    }
+
+    void disable() throws IOException {
+        command("disable\n");
+    }
+
+    private void command(String command) throws IOException {
+        ctl.write(command.getBytes(StandardCharsets.US_ASCII));
+        byte[] reply = new byte[4];
+        ack.readFully(reply); // "ack\n"
+    }
+
+    // Ends the session; one {event, count, unit, percent running} row per counter
+    List<String[]> finish() throws IOException {
+        stdin.close();
+        List<String[]> counts = new ArrayList<>();
+        try (BufferedReader stderr = new BufferedReader(new InputStreamReader(perf.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = stderr.readLine()) != null) {
+                // value,unit,event,runtime,percent[,metric,metric unit]
+                String[] fields = line.split(",", -1);
+                if (fields.length < 5 || fields[2].isEmpty()) continue;
+                counts.add(new String[]{fields[2], fields[0], fields[1], fields[4]});
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public void close() throws IOException {
+        stdin.close();
+        perf.destroy();
+        ctl.close();
+        ack.close();
+        deleteDir();
+    }
+
+    private void deleteDir() {
+        File[] files = dir.listFiles();
+        if (files != null) for (File f : files) f.delete();
+        dir.delete();
+    }
+
+    private static void mkfifo(File path) throws IOException {
+        try {
+            if (new ProcessBuilder("mkfifo", path.getPath()).start().waitFor() != 0) {
+                throw new IOException("mkfifo failed for " + path);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.math.BigInteger;
+
+// Estimators for float[], int[] and long[] input, so narrow data does not have to be widened into
+// a new double[] first. float is read as float and accumulated in double. int and long keep sum
+// and sumSq as exact multi-word integers; n * sumSq - sum^2 is then formed exactly, so the only
+// rounding is the final conversion and division.
+public class PrimitiveVariance {
+
+    static final int WIDEN_BLOCK = 256;
+
+    private static final BigInteger MASK64 = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    private static final ThreadLocal<double[]> BLOCK = ThreadLocal.withInitial(() -> new double[WIDEN_BLOCK]);
+
+    // float: the same sum/sumSq pass as optimizedBariance, two-pass for the unbiased variance
+
+    public static double bariance(float[] x) {
+        return bariance(x, 0, x.length);
+    }
+
+    // Widens WIDEN_BLOCK values at a time into an L1-resident per-thread block and sums that: the
+    // conversion inside the accumulation loop ran slower than widening the whole array
+    // first. The summation order is unchanged, so the result equals optimizedBariance of the widened array.
+    public static double bariance(float[] x, int from, int to) {
+        int n = to - from;
+        double[] block = BLOCK.get();
+        double sum = 0, sumSq = 0;
+        for (int start = from; start < to; start += WIDEN_BLOCK) {
+            int m = Math.min(WIDEN_BLOCK, to - start);
+            for (int i = 0; i < m; i++) block[i] = x[start + i];
+            for (int i = 0; i < m; i++) {
+                double v = block[i];
+                sum += v;
+                sumSq += v * v;
+            }
+        }
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public static double unbiasedVariance(float[] x) {
+        return unbiasedVariance(x, 0, x.length);
+    }
+
+    public static double unbiasedVariance(float[] x, int from, int to) {
+        int n = to - from;
+        double mean = 0;
+        for (int i = from; i < to; i++) mean += x[i];
+        mean /= n;
+
+        double sumSq = 0;
+        for (int i = from; i < to; i++) sumSq += (x[i] - mean) * (x[i] - mean);
+        return sumSq / (n - 1);
+    }
+
+    // int: sum fits a long for any int[] length, v * v < 2^62 goes into a 128-bit sumSq
+
+    public static double bariance(int[] x) {
+        return bariance(x, 0, x.length);
+    }
+
+    public static double bariance(int[] x, int from, int to) {
+        long sum = 0, qLo = 0, qHi = 0;
+        for (int i = from; i < to; i++) {
+            long v = x[i];
+            sum += v;
+            long p = v * v;
+            qLo += p;
+            if (Long.compareUnsigned(qLo, p) < 0) qHi++;
+        }
+        return exactBariance(to - from, sum >> 63, sum, 0, qHi, qLo);
+    }
+
+    public static double unbiasedVariance(int[] x) {
+        return bariance(x) / 2;
+    }
+
+    public static double unbiasedVariance(int[] x, int from, int to) {
+        return bariance(x, from, to) / 2;
+    }
+
+    // long: counters and timestamps are large but close together, so the values are first taken
+    // relative to x[from]; while every difference fits in an int this is the int loop. Otherwise
+    // it falls back to a 128-bit signed sum and a 192-bit sumSq of the values themselves.
+
+    public static double bariance(long[] x) {
+        return bariance(x, 0, x.length);
+    }
+
+    public static double bariance(long[] x, int from, int to) {
+        long base = to > from ? x[from] : 0;
+        long sum = 0, qLo = 0, qHi = 0, spread = 0, overflow = 0;
+        for (int i = from; i < to; i++) {
+            long v = x[i];
+            long d = v - base;
+            overflow |= (v ^ base) & (v ^ d);
+            spread |= d ^ (d >> 63);
+            sum += d;
+            long p = d * d;
+            qLo += p;
+            if (Long.compareUnsigned(qLo, p) < 0) qHi++;
+        }
+        if (overflow >= 0 && spread >>> 31 == 0) {
+            return exactBariance(to - from, sum >> 63, sum, 0, qHi, qLo);
+        }
+        return wideBariance(x, from, to);
+    }
+
+    static double wideBariance(long[] x, int from, int to) {
+        long sLo = 0, sHi = 0, qLo = 0, qMid = 0, qTop = 0;
+        for (int i = from; i < to; i++) {
+            long v = x[i];
+            sLo += v;
+            sHi += (v >> 63) + (Long.compareUnsigned(sLo, v) < 0 ? 1 : 0);
+            long p = v * v, pHi = Math.multiplyHigh(v, v);
+            qLo += p;
+            if (Long.compareUnsigned(qLo, p) < 0) pHi++;
+            qMid += pHi;
+            if (Long.compareUnsigned(qMid, pHi) < 0) qTop++;
+        }
+        return exactBariance(to - from, sHi, sLo, qTop, qMid, qLo);
+    }
+
+    public static double unbiasedVariance(long[] x) {
+        return bariance(x) / 2;
+    }
+
+    public static double unbiasedVariance(long[] x, int from, int to) {
+        return bariance(x, from, to) / 2;
+    }
+
+    // 2 * (n * q - s^2) / (n * (n - 1)) for a signed 128-bit s = (sHi, sLo) and an unsigned
+    // 192-bit q = (qTop, qMid, qLo). The numerator is n^2 times the centered sum of squares, so it is
+    // non-negative and at most n * q: when n * q fits in 128 bits the difference can be taken
+    // mod 2^128. Otherwise (values near the long range) it is done in BigInteger.
+    static double exactBariance(int n, long sHi, long sLo, long qTop, long qMid, long qLo) {
+        long aLo = n * qLo;
+        long carry = Math.unsignedMultiplyHigh(n, qLo);
+        long aHi = n * qMid + carry;
+        boolean fits = qTop == 0 && Math.unsignedMultiplyHigh(n, qMid) == 0
+                && Long.compareUnsigned(n * qMid, -1L - carry) <= 0;
+        if (!fits) {
+            BigInteger s = BigInteger.valueOf(sHi).shiftLeft(64).or(BigInteger.valueOf(sLo).and(MASK64));
+            BigInteger q = BigInteger.valueOf(qTop).shiftLeft(128)
+                    .or(BigInteger.valueOf(qMid).and(MASK64).shiftLeft(64))
+                    .or(BigInteger.valueOf(qLo).and(MASK64));
+            BigInteger num = q.multiply(BigInteger.valueOf(n)).subtract(s.multiply(s));
+            return 2 * num.doubleValue() / (n * (n - 1.0));
+        }
+        // s^2 mod 2^128 (the sign does not matter mod 2^128)
+        long bLo = sLo * sLo;
+        long bHi = Math.unsignedMultiplyHigh(sLo, sLo) + 2 * sLo * sHi;
+        long lo = aLo - bLo;
+        long hi = aHi - bHi - (Long.compareUnsigned(aLo, bLo) < 0 ? 1 : 0);
+        return 2 * (unsignedToDouble(hi) * 0x1p64 + unsignedToDouble(lo)) / (n * (n - 1.0));
+    }
+
+    static double unsignedToDouble(long v) {
+        return v >= 0 ? v : (double) ((v >>> 1) | (v & 1)) * 2.0;
+    }
+}
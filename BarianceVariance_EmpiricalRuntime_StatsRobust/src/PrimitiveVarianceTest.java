@@ -0,0 +1,75 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.Random;
+
+public class PrimitiveVarianceTest {
+
+    @Test
+    public void testFloatMatchesWidened() {
+        Random rand = new Random(42L);
+        float[] x = new float[10000];
+        double[] widened = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = (float) GammaSampler.nextGamma(rand, 2.0, 2.0);
+            widened[i] = x[i];
+        }
+        assertEquals(VarianceKernels.optimizedBariance(widened), PrimitiveVariance.bariance(x));
+        assertEquals(VarianceKernels.unbiasedVariance(widened), PrimitiveVariance.unbiasedVariance(x));
+        assertEquals(VarianceKernels.optimizedBariance(widened, 100, 900), PrimitiveVariance.bariance(x, 100, 900));
+    }
+
+    @Test
+    public void testIntIsExact() {
+        Random rand = new Random(7L);
+        int[] x = new int[5000];
+        for (int i = 0; i < x.length; i++) x[i] = rand.nextInt();
+        assertUlps(exact(x.length, i -> BigInteger.valueOf(x[i])), PrimitiveVariance.bariance(x));
+
+        // A large offset with unit spread: the double sum/sumSq form loses everything here
+        for (int i = 0; i < x.length; i++) x[i] = Integer.MAX_VALUE - rand.nextInt(4);
+        assertUlps(exact(x.length, i -> BigInteger.valueOf(x[i])), PrimitiveVariance.bariance(x));
+        assertEquals(PrimitiveVariance.bariance(x, 10, 20) / 2, PrimitiveVariance.unbiasedVariance(x, 10, 20));
+    }
+
+    @Test
+    public void testLongIsExact() {
+        Random rand = new Random(11L);
+        long[] counters = new long[5000], wide = new long[5000], extreme = new long[5000];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (1L << 40) + rand.nextInt(1000); // int loop after the x[from] shift
+            wide[i] = rand.nextLong() >> 23;                // spread beyond 2^31, n * sumSq within 128 bits
+            extreme[i] = rand.nextLong();                   // BigInteger path
+        }
+        assertUlps(exact(counters.length, i -> BigInteger.valueOf(counters[i])), PrimitiveVariance.bariance(counters));
+        assertUlps(exact(wide.length, i -> BigInteger.valueOf(wide[i])), PrimitiveVariance.bariance(wide));
+        assertEquals(PrimitiveVariance.bariance(wide), PrimitiveVariance.wideBariance(wide, 0, wide.length));
+        assertUlps(exact(extreme.length, i -> BigInteger.valueOf(extreme[i])), PrimitiveVariance.bariance(extreme));
+
+        assertUlps(Math.pow(2, 128), PrimitiveVariance.bariance(new long[]{Long.MIN_VALUE, Long.MAX_VALUE})); // x - x[0] overflows
+
+        long[] small = {2, 4, 4, 4, 5, 5, 7, 9};
+        assertEquals(2 * 4.571428571428571, PrimitiveVariance.bariance(small), 1e-12);
+        assertEquals(4.0, PrimitiveVariance.bariance(new long[]{-1, -3}));
+    }
+
+    // The integer numerator is exact; its conversion and the division round once each
+    static void assertUlps(double expected, double actual) {
+        assertEquals(expected, actual, 2 * Math.ulp(expected));
+    }
+
+    // Correctly rounded 2 * (n * sumSq - sum^2) / (n * (n - 1))
+    static double exact(int n, java.util.function.IntFunction<BigInteger> value) {
+        BigInteger sum = BigInteger.ZERO, sumSq = BigInteger.ZERO;
+        for (int i = 0; i < n; i++) {
+            BigInteger v = value.apply(i);
+            sum = sum.add(v);
+            sumSq = sumSq.add(v.multiply(v));
+        }
+        BigInteger num = sumSq.multiply(BigInteger.valueOf(n)).subtract(sum.multiply(sum)).shiftLeft(1);
+        return new BigDecimal(num).divide(new BigDecimal((long) n * (n - 1)), MathContext.DECIMAL128).doubleValue();
+    }
+}
@@ -0,0 +1,106 @@
+import java.util.Arrays;
+
+// Mergeable quantile sketch for positive timings with bounded relative error (log-spaced buckets,
+// as in DDSketch). Bucket i holds values in (gamma^(i-1), gamma^i] and reports them as the point
+// with relative error at most `relativeAccuracy`; merging two sketches just adds bucket counts.
+// Zeros (nanoTime ticks too coarse for the call) are counted separately.
+public final class QuantileSketch {
+
+    public interface BucketConsumer {
+        void accept(double value, long count);
+    }
+
+    static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+
+    final double relativeAccuracy;
+    final double gamma, logGamma;
+    long[] counts = new long[64];
+    int offset = Integer.MIN_VALUE; // bucket index of counts[0], set by the first positive value
+    long zeroCount, count;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("relative accuracy must be in (0, 1): " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        logGamma = Math.log(gamma);
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, long n) {
+        if (value < 0 || Double.isNaN(value)) throw new IllegalArgumentException("negative or NaN value: " + value);
+        count += n;
+        if (value == 0) {
+            zeroCount += n;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        ensure(index);
+        counts[index - offset] += n;
+    }
+
+    private void ensure(int index) {
+        if (offset == Integer.MIN_VALUE) offset = index - counts.length / 2;
+        if (index < offset) {
+            int grow = Math.max(offset - index, counts.length / 2);
+            long[] grown = new long[counts.length + grow];
+            System.arraycopy(counts, 0, grown, grow, counts.length);
+            counts = grown;
+            offset -= grow;
+        } else if (index - offset >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index - offset + 1, counts.length + counts.length / 2));
+        }
+    }
+
+    public void merge(QuantileSketch other) {
+        if (other.gamma != gamma) throw new IllegalArgumentException("sketches use different accuracies");
+        count += other.count;
+        zeroCount += other.zeroCount;
+        if (other.offset == Integer.MIN_VALUE) return;
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] == 0) continue;
+            int index = other.offset + i;
+            ensure(index);
+            counts[index - offset] += other.counts[i];
+        }
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // Value with rank floor(q * (count - 1)), within relativeAccuracy of the exact order statistic
+    public double quantile(double q) {
+        if (count == 0) return Double.NaN;
+        long rank = (long) (q * (count - 1));
+        if (rank < zeroCount) return 0.0;
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) return value(offset + i);
+        }
+        return value(offset + counts.length - 1);
+    }
+
+    // Representative of bucket i: 2 * gamma^i / (gamma + 1)
+    double value(int index) {
+        return 2 * Math.exp(index * logGamma) / (gamma + 1);
+    }
+
+    // Non-empty buckets in increasing order, zeros first
+    public void forEach(BucketConsumer consumer) {
+        if (zeroCount > 0) consumer.accept(0.0, zeroCount);
+        if (offset == Integer.MIN_VALUE) return;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) consumer.accept(value(offset + i), counts[i]);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.random.RandomGenerator;
+
+// Compares two runs in the SampleSize,Trial,Estimator,RuntimeNs format (CSV or .bin) cell by
+// cell, i.e. per (estimator, sample size). Each cell gets candidate / baseline ratios of the
+// median and p99, with percentile bootstrap CIs (both runs resampled independently, quantiles
+// found by selection), and a two-sided Mann-Whitney U test (normal approximation with tie and
+// continuity corrections). A cell regresses when the median ratio's lower bound is above
+// 1 + threshold and Mann-Whitney rejects at alpha, or the p99 ratio's lower bound is above
+// 1 + p99Threshold. It improves when the median ratio's upper bound is below 1 - threshold and
+// Mann-Whitney rejects.
+//
+// RegressionGate <baseline> <candidate> [prefix] [--threshold=0.05] [--p99-threshold=0.10]
+// [--alpha=0.01] [--confidence=0.95] [--bootstrap=2000] [--seed=42]
+// Writes <prefix>_comparison.csv, prints the report and exits with status 1 if any cell regressed,
+// or with status 2 if the comparison could not be made (bad arguments, unreadable or malformed runs).
+public final class RegressionGate {
+
+    static double threshold = 0.05;
+    static double p99Threshold = 0.10;
+    static double alpha = 0.01;
+    static double confidence = 0.95;
+    static int bootstrap = 2000;
+    static long seed = 42L;
+
+    public enum Verdict { REGRESSED, IMPROVED, UNCHANGED }
+
+    public static final class Comparison {
+        public final String estimator;
+        public final int sampleSize, baselineCount, candidateCount;
+        public final double baselineMedian, candidateMedian, medianRatio, p99Ratio, mannWhitneyP;
+        public final double[] medianRatioCi, p99RatioCi;
+        public final Verdict verdict;
+
+        Comparison(String estimator, int sampleSize, int baselineCount, int candidateCount, double baselineMedian,
+                   double candidateMedian, double p99Ratio, double[] medianRatioCi, double[] p99RatioCi, double mannWhitneyP) {
+            this.estimator = estimator;
+            this.sampleSize = sampleSize;
+            this.baselineCount = baselineCount;
+            this.candidateCount = candidateCount;
+            this.baselineMedian = baselineMedian;
+            this.candidateMedian = candidateMedian;
+            this.medianRatio = candidateMedian / baselineMedian;
+            this.p99Ratio = p99Ratio;
+            this.medianRatioCi = medianRatioCi;
+            this.p99RatioCi = p99RatioCi;
+            this.mannWhitneyP = mannWhitneyP;
+            boolean significant = mannWhitneyP < alpha;
+            if ((significant && medianRatioCi[0] > 1 + threshold) || p99RatioCi[0] > 1 + p99Threshold) {
+                verdict = Verdict.REGRESSED;
+            } else if (significant && medianRatioCi[1] < 1 - threshold) {
+                verdict = Verdict.IMPROVED;
+            } else {
+                verdict = Verdict.UNCHANGED;
+            }
+        }
+    }
+
+    // Raw timings per (estimator, sample size); the bootstrap needs every value, not a sketch
+    public static final class Run implements ResultSink.RowConsumer {
+        final Map<String, TreeMap<Integer, Timings>> cells = new LinkedHashMap<>();
+
+        static final class Timings {
+            long[] values = new long[16];
+            int size;
+        }
+
+        @Override
+        public void accept(int sampleSize, int trial, String estimator, long value) {
+            Timings t = cells.computeIfAbsent(estimator, e -> new TreeMap<>()).computeIfAbsent(sampleSize, n -> new Timings());
+            if (t.size == t.values.length) t.values = Arrays.copyOf(t.values, 2 * t.size);
+            t.values[t.size++] = value;
+        }
+
+        public long[] timings(String estimator, int sampleSize) {
+            TreeMap<Integer, Timings> byN = cells.get(estimator);
+            Timings t = byN == null ? null : byN.get(sampleSize);
+            return t == null ? null : Arrays.copyOf(t.values, t.size);
+        }
+
+        public static Run load(String path) throws IOException {
+            Run run = new Run();
+            RuntimeAnalysis.read(path, run);
+            return run;
+        }
+    }
+
+    public static void main(String[] args) {
+        int status;
+        try {
+            status = run(args);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("RegressionGate failed: " + e);
+            status = 2;
+        }
+        if (status != 0) System.exit(status);
+    }
+
+    // 1 if any cell regressed, otherwise 0
+    static int run(String[] args) throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (!arg.startsWith("--")) paths.add(arg);
+            else if (arg.startsWith("--threshold=")) threshold = Double.parseDouble(value);
+            else if (arg.startsWith("--p99-threshold=")) p99Threshold = Double.parseDouble(value);
+            else if (arg.startsWith("--alpha=")) alpha = Double.parseDouble(value);
+            else if (arg.startsWith("--confidence=")) confidence = Double.parseDouble(value);
+            else if (arg.startsWith("--bootstrap=")) bootstrap = Integer.parseInt(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else throw new IllegalArgumentException("Unknown argument: " + arg);
+        }
+        if (paths.size() < 2) throw new IllegalArgumentException("Usage: RegressionGate <baseline> <candidate> [prefix] [--options]");
+        String candidatePath = paths.get(1);
+        String prefix = paths.size() > 2 ? paths.get(2)
+                : candidatePath.lastIndexOf('.') > candidatePath.lastIndexOf('/')
+                ? candidatePath.substring(0, candidatePath.lastIndexOf('.')) : candidatePath;
+
+        Run baseline = Run.load(paths.get(0)), candidate = Run.load(candidatePath);
+        List<String> skipped = new ArrayList<>();
+        List<Comparison> comparisons = compare(baseline, candidate, skipped);
+
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(prefix + "_comparison.csv"))) {
+            out.write("Estimator,SampleSize,BaselineCount,CandidateCount,BaselineMedian,CandidateMedian,MedianRatio,"
+                    + "MedianRatioLow,MedianRatioHigh,P99Ratio,P99RatioLow,P99RatioHigh,MannWhitneyP,Verdict\n");
+            for (Comparison c : comparisons) {
+                out.write(c.estimator + "," + c.sampleSize + "," + c.baselineCount + "," + c.candidateCount + ","
+                        + c.baselineMedian + "," + c.candidateMedian + "," + c.medianRatio + ","
+                        + c.medianRatioCi[0] + "," + c.medianRatioCi[1] + "," + c.p99Ratio + ","
+                        + c.p99RatioCi[0] + "," + c.p99RatioCi[1] + "," + c.mannWhitneyP + "," + c.verdict + "\n");
+            }
+        }
+        String report = report(paths.get(0), candidatePath, comparisons, skipped);
+        System.out.print(report);
+        System.out.println("Comparison written to " + prefix + "_comparison.csv");
+        return comparisons.stream().anyMatch(c -> c.verdict == Verdict.REGRESSED) ? 1 : 0;
+    }
+
+    // Every cell with at least 2 timings in both runs, in the baseline's order; the rest go to skipped
+    public static List<Comparison> compare(Run baseline, Run candidate, List<String> skipped) {
+        List<Comparison> comparisons = new ArrayList<>();
+        for (Map.Entry<String, TreeMap<Integer, Run.Timings>> e : baseline.cells.entrySet()) {
+            for (int n : e.getValue().keySet()) {
+                long[] b = baseline.timings(e.getKey(), n), c = candidate.timings(e.getKey(), n);
+                if (c == null || b.length < 2 || c.length < 2) {
+                    skipped.add(e.getKey() + " n=" + n + (c == null ? " (not in candidate)" : " (fewer than 2 timings)"));
+                    continue;
+                }
+                comparisons.add(compare(e.getKey(), n, b, c, ((long) e.getKey().hashCode() << 32) ^ n));
+            }
+        }
+        for (Map.Entry<String, TreeMap<Integer, Run.Timings>> e : candidate.cells.entrySet()) {
+            for (int n : e.getValue().keySet()) {
+                if (baseline.timings(e.getKey(), n) == null) skipped.add(e.getKey() + " n=" + n + " (not in baseline)");
+            }
+        }
+        return comparisons;
+    }
+
+    // streamIndex picks the bootstrap stream; compare(Run, Run, ...) derives it from the cell's estimator
+    // and sample size, so a cell's CIs do not depend on which other cells the runs hold
+    static Comparison compare(String estimator, int sampleSize, long[] baseline, long[] candidate, long streamIndex) {
+        double[] b = toDouble(baseline), c = toDouble(candidate);
+        double[] ci = bootstrapRatios(b, c, streamIndex);
+        double baseP99 = RobustDispersion.quantile(b, 0, b.length, 0.99);
+        double candP99 = RobustDispersion.quantile(c, 0, c.length, 0.99);
+        return new Comparison(estimator, sampleSize, b.length, c.length, RobustDispersion.quantile(b, 0, b.length, 0.5),
+                RobustDispersion.quantile(c, 0, c.length, 0.5), candP99 / baseP99,
+                new double[]{ci[0], ci[1]}, new double[]{ci[2], ci[3]}, mannWhitneyP(baseline, candidate));
+    }
+
+    // Percentile bootstrap of candidate / baseline for the median and p99:
+    // {medianLow, medianHigh, p99Low, p99High}
+    static double[] bootstrapRatios(double[] baseline, double[] candidate, long streamIndex) {
+        RandomGenerator rng = BootstrapMseSimulation.stream(seed, streamIndex);
+        double[] rb = new double[baseline.length], rc = new double[candidate.length];
+        double[] median = new double[bootstrap], p99 = new double[bootstrap];
+        for (int r = 0; r < bootstrap; r++) {
+            for (int i = 0; i < rb.length; i++) rb[i] = baseline[rng.nextInt(rb.length)];
+            for (int i = 0; i < rc.length; i++) rc[i] = candidate[rng.nextInt(rc.length)];
+            double b99 = RobustDispersion.quantileInPlace(rb, 0, rb.length, 0.99);
+            double c99 = RobustDispersion.quantileInPlace(rc, 0, rc.length, 0.99);
+            median[r] = RobustDispersion.quantileInPlace(rc, 0, rc.length, 0.5)
+                    / RobustDispersion.quantileInPlace(rb, 0, rb.length, 0.5);
+            p99[r] = c99 / b99;
+        }
+        Arrays.sort(median);
+        Arrays.sort(p99);
+        double tail = (1 - confidence) / 2;
+        return new double[]{RobustDispersion.sortedQuantile(median, bootstrap, tail),
+                RobustDispersion.sortedQuantile(median, bootstrap, 1 - tail),
+                RobustDispersion.sortedQuantile(p99, bootstrap, tail),
+                RobustDispersion.sortedQuantile(p99, bootstrap, 1 - tail)};
+    }
+
+    // Two-sided Mann-Whitney U p-value; ties get average ranks and shrink the variance
+    static double mannWhitneyP(long[] a, long[] b) {
+        long[] x = a.clone(), y = b.clone();
+        Arrays.sort(x);
+        Arrays.sort(y);
+        int n1 = x.length, n2 = y.length;
+        double n = n1 + n2;
+        double rankSum = 0, ties = 0;
+        long rank = 1;
+        for (int i = 0, j = 0; i < n1 || j < n2; ) {
+            long v = j == n2 || (i < n1 && x[i] <= y[j]) ? x[i] : y[j];
+            int ta = 0, tb = 0;
+            while (i < n1 && x[i] == v) {
+                i++;
+                ta++;
+            }
+            while (j < n2 && y[j] == v) {
+                j++;
+                tb++;
+            }
+            double t = ta + tb;
+            rankSum += ta * (rank + (t - 1) / 2);
+            ties += t * t * t - t;
+            rank += ta + tb;
+        }
+        double u = rankSum - n1 * (n1 + 1.0) / 2;
+        double variance = n1 * (double) n2 / 12 * ((n + 1) - ties / (n * (n - 1)));
+        if (variance <= 0) return 1.0;
+        double z = Math.max(0, Math.abs(u - n1 * (double) n2 / 2) - 0.5) / Math.sqrt(variance);
+        return LeastSquares.erfc(z / Math.sqrt(2));
+    }
+
+    private static double[] toDouble(long[] values) {
+        double[] d = new double[values.length];
+        for (int i = 0; i < values.length; i++) d[i] = values[i];
+        return d;
+    }
+
+    static String report(String baselinePath, String candidatePath, List<Comparison> comparisons, List<String> skipped) {
+        StringBuilder report = new StringBuilder();
+        report.append("Baseline: ").append(baselinePath).append('\n');
+        report.append("Candidate: ").append(candidatePath).append('\n');
+        report.append(String.format("Regression: median ratio > %.3f and Mann-Whitney p < %s, or p99 ratio > %.3f "
+                        + "(lower bounds of %.0f%% bootstrap CIs, %d resamples)%n",
+                1 + threshold, alpha, 1 + p99Threshold, 100 * confidence, bootstrap));
+        report.append(String.format("%-20s %10s %8s %22s %8s %22s %10s  %s%n", "Estimator", "SampleSize", "Median",
+                "CI", "P99", "CI", "MW p", "Verdict"));
+        int[] counts = new int[Verdict.values().length];
+        for (Comparison c : comparisons) {
+            counts[c.verdict.ordinal()]++;
+            report.append(String.format("%-20s %10d %8.3f %22s %8.3f %22s %10.3g  %s%n", c.estimator, c.sampleSize,
+                    c.medianRatio, String.format("[%.3f, %.3f]", c.medianRatioCi[0], c.medianRatioCi[1]),
+                    c.p99Ratio, String.format("[%.3f, %.3f]", c.p99RatioCi[0], c.p99RatioCi[1]),
+                    c.mannWhitneyP, c.verdict));
+        }
+        for (String s : skipped) report.append("Skipped: ").append(s).append('\n');
+        report.append(String.format("%d cells: %d regressed, %d improved, %d unchanged%n", comparisons.size(),
+                counts[Verdict.REGRESSED.ordinal()], counts[Verdict.IMPROVED.ordinal()], counts[Verdict.UNCHANGED.ordinal()]));
+        return report.toString();
+    }
+}
@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class RegressionGateTest {
+
+    @TempDir
+    Path dir;
+
+    private static long[] timings(Random rand, int count, double median) {
+        long[] t = new long[count];
+        for (int i = 0; i < count; i++) t[i] = Math.round(median * Math.exp(0.1 * rand.nextGaussian()));
+        return t;
+    }
+
+    @Test
+    public void testMannWhitney() {
+        // scipy.stats.mannwhitneyu(a, b, method="asymptotic") = 0.01219
+        assertEquals(0.01219, RegressionGate.mannWhitneyP(new long[]{1, 2, 3, 4, 5}, new long[]{6, 7, 8, 9, 10}), 1e-4);
+        assertEquals(1.0, RegressionGate.mannWhitneyP(new long[]{3, 3, 3}, new long[]{3, 3}));
+        long[] a = {1, 2, 2, 3, 5, 8}, b = {2, 3, 3, 4, 9};
+        assertEquals(RegressionGate.mannWhitneyP(a, b), RegressionGate.mannWhitneyP(b, a), 1e-12);
+    }
+
+    @Test
+    public void testVerdicts() {
+        Random rand = new Random(42L);
+        long[] baseline = timings(rand, 500, 1000);
+        assertEquals(RegressionGate.Verdict.UNCHANGED,
+                RegressionGate.compare("Same", 100, baseline, timings(rand, 500, 1000), 0).verdict);
+
+        RegressionGate.Comparison slower = RegressionGate.compare("Slower", 100, baseline, timings(rand, 500, 1300), 1);
+        assertEquals(RegressionGate.Verdict.REGRESSED, slower.verdict);
+        assertTrue(slower.medianRatioCi[0] > 1.2 && slower.medianRatioCi[1] < 1.4);
+        assertTrue(slower.mannWhitneyP < 1e-10);
+
+        assertEquals(RegressionGate.Verdict.IMPROVED,
+                RegressionGate.compare("Faster", 100, baseline, timings(rand, 500, 700), 2).verdict);
+
+        // Same median, a slow tail: only the p99 ratio catches it
+        long[] tail = timings(rand, 500, 1000);
+        for (int i = 0; i < tail.length; i += 20) tail[i] *= 3;
+        RegressionGate.Comparison c = RegressionGate.compare("Tail", 100, baseline, tail, 3);
+        assertEquals(RegressionGate.Verdict.REGRESSED, c.verdict);
+        assertTrue(c.medianRatioCi[0] < 1.05);
+        assertTrue(c.p99RatioCi[0] > 1.1);
+    }
+
+    @Test
+    public void testCompareRunsFromCsv() throws IOException {
+        Path base = dir.resolve("base.csv"), cand = dir.resolve("cand.csv");
+        Random rand = new Random(7L);
+        try (PrintWriter b = new PrintWriter(Files.newBufferedWriter(base));
+             PrintWriter c = new PrintWriter(Files.newBufferedWriter(cand))) {
+            b.println("SampleSize,Trial,Estimator,RuntimeNs");
+            c.println("SampleSize,Trial,Estimator,RuntimeNs");
+            for (int t = 0; t < 200; t++) {
+                for (int n : new int[]{1000, 10000}) {
+                    b.println(n + "," + t + ",Unbiased," + Math.round(n * Math.exp(0.1 * rand.nextGaussian())));
+                    b.println(n + "," + t + ",BarianceOpt," + Math.round(n * Math.exp(0.1 * rand.nextGaussian())));
+                    c.println(n + "," + t + ",Unbiased," + Math.round(n * Math.exp(0.1 * rand.nextGaussian())));
+                    c.println(n + "," + t + ",BarianceOpt," + Math.round(1.5 * n * Math.exp(0.1 * rand.nextGaussian())));
+                }
+                c.println(500 + "," + t + ",Unbiased,500");
+            }
+        }
+        List<String> skipped = new ArrayList<>();
+        List<RegressionGate.Comparison> comparisons = RegressionGate.compare(
+                RegressionGate.Run.load(base.toString()), RegressionGate.Run.load(cand.toString()), skipped);
+        assertEquals(4, comparisons.size());
+        assertEquals(List.of("Unbiased n=500 (not in baseline)"), skipped);
+        for (RegressionGate.Comparison c : comparisons) {
+            assertEquals(200, c.baselineCount);
+            assertEquals(c.estimator.equals("BarianceOpt") ? RegressionGate.Verdict.REGRESSED : RegressionGate.Verdict.UNCHANGED,
+                    c.verdict, c.estimator + " n=" + c.sampleSize);
+        }
+        String report = RegressionGate.report(base.toString(), cand.toString(), comparisons, skipped);
+        assertTrue(report.contains("4 cells: 2 regressed, 0 improved, 2 unchanged"), report);
+
+        // main exits with these; an invocation that cannot compare throws instead, which main turns into 2
+        String prefix = dir.resolve("gate").toString();
+        assertEquals(1, RegressionGate.run(new String[]{base.toString(), cand.toString(), prefix}));
+        assertEquals(0, RegressionGate.run(new String[]{base.toString(), base.toString(), prefix}));
+        assertTrue(Files.exists(Path.of(prefix + "_comparison.csv")));
+        assertThrows(IOException.class, () -> RegressionGate.run(new String[]{dir.resolve("missing.csv").toString(), cand.toString(), prefix}));
+        assertThrows(IllegalArgumentException.class, () -> RegressionGate.run(new String[]{base.toString()}));
+    }
+}
@@ -0,0 +1,154 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Records (sampleSize, trial, estimator, value) rows into preallocated primitive columns and
+// hands full batches to a background thread, so the measurement thread neither allocates nor
+// makes syscalls between timed calls. Output goes through a pluggable Format.
+public final class ResultSink implements AutoCloseable {
+
+    public interface Format extends Closeable {
+        void header(String[] estimators, String valueColumn) throws IOException;
+
+        void write(Batch batch) throws IOException;
+    }
+
+    public interface RowConsumer {
+        void accept(int sampleSize, int trial, String estimator, long value);
+    }
+
+    public static final class Batch {
+        final int[] sampleSize;
+        final int[] trial;
+        final byte[] estimator;
+        final long[] value;
+        int size;
+
+        Batch(int capacity) {
+            sampleSize = new int[capacity];
+            trial = new int[capacity];
+            estimator = new byte[capacity];
+            value = new long[capacity];
+        }
+    }
+
+    static final int DEFAULT_BATCH = 1 << 16;
+    private static final Batch END = new Batch(0);
+
+    final String[] estimators;
+    final Format format;
+    final BlockingQueue<Batch> free = new ArrayBlockingQueue<>(2);
+    final BlockingQueue<Batch> full = new ArrayBlockingQueue<>(3);
+    final Thread flusher;
+    // First exception from the format; later batches are recycled unwritten and the failure is rethrown to the caller
+    volatile Throwable failure;
+    Batch current;
+
+    public ResultSink(Format format, String[] estimators, String valueColumn, int batchSize) throws IOException {
+        if (estimators.length > 128) throw new IllegalArgumentException("At most 128 estimators per sink");
+        this.format = format;
+        this.estimators = estimators.clone();
+        format.header(this.estimators, valueColumn);
+        current = new Batch(batchSize);
+        free.add(new Batch(batchSize));
+        flusher = new Thread(this::drain, "result-sink");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // CSV unless the path ends in .bin. -Dbv.summary=only replaces the raw rows by the
+    // RuntimeAnalysis summary next to the path, -Dbv.summary=both writes both.
+    public static ResultSink open(String path, String... estimators) throws IOException {
+        return open(path, "RuntimeNs", estimators);
+    }
+
+    public static ResultSink open(String path, String valueColumn, String[] estimators) throws IOException {
+        String summary = System.getProperty("bv.summary", "off");
+        String prefix = path.lastIndexOf('.') > path.lastIndexOf('/') ? path.substring(0, path.lastIndexOf('.')) : path;
+        Format format;
+        switch (summary) {
+            case "off":
+                format = raw(path);
+                break;
+            case "only":
+                format = new SummaryResultFormat(prefix, null);
+                break;
+            case "both":
+                format = new SummaryResultFormat(prefix, raw(path));
+                break;
+            default:
+                throw new IllegalArgumentException("bv.summary must be off, only or both: " + summary);
+        }
+        return new ResultSink(format, estimators, valueColumn, DEFAULT_BATCH);
+    }
+
+    static Format raw(String path) throws IOException {
+        return path.endsWith(".bin") ? new BinaryResultFormat(path) : new CsvResultFormat(path);
+    }
+
+    public int estimatorId(String name) {
+        for (int i = 0; i < estimators.length; i++) {
+            if (estimators[i].equals(name)) return i;
+        }
+        throw new IllegalArgumentException("Unknown estimator: " + name);
+    }
+
+    public void record(int sampleSize, int trial, int estimatorId, long value) {
+        Batch b = current;
+        int i = b.size;
+        b.sampleSize[i] = sampleSize;
+        b.trial[i] = trial;
+        b.estimator[i] = (byte) estimatorId;
+        b.value[i] = value;
+        b.size = i + 1;
+        if (b.size == b.value.length) handOff();
+    }
+
+    private void handOff() {
+        if (failure instanceof IOException) throw new UncheckedIOException((IOException) failure);
+        if (failure != null) throw new IllegalStateException("Writing results failed", failure);
+        try {
+            full.put(current);
+            current = free.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while handing off results", e);
+        }
+    }
+
+    private void drain() {
+        try {
+            for (Batch b = full.take(); b != END; b = full.take()) {
+                try {
+                    if (failure == null) format.write(b);
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                b.size = 0;
+                free.put(b);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (current.size > 0) full.put(current);
+            full.put(END);
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while flushing results", e);
+        } finally {
+            format.close();
+        }
+        if (failure instanceof IOException) throw (IOException) failure;
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+        if (failure != null) throw new IOException("Writing results failed", failure);
+    }
+}
@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ResultSinkTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testCsvAcrossManyBatches() throws IOException {
+        Path path = dir.resolve("runtime.csv");
+        String[] estimators = {"Unbiased", "BarianceOpt"};
+        try (ResultSink sink = new ResultSink(new CsvResultFormat(path.toString()), estimators, "RuntimeNs", 7)) {
+            for (int t = 0; t < 50; t++) {
+                sink.record(100, t, 0, 1000 + t);
+                sink.record(100, t, 1, 2000 + t);
+            }
+        }
+
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(101, lines.size());
+        assertEquals("SampleSize,Trial,Estimator,RuntimeNs", lines.get(0));
+        assertEquals("100,0,Unbiased,1000", lines.get(1));
+        assertEquals("100,49,BarianceOpt,2049", lines.get(100));
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws IOException {
+        Path path = dir.resolve("runtime.bin");
+        try (ResultSink sink = ResultSink.open(path.toString(), "Unbiased", "BarianceOpt")) {
+            for (int t = 0; t < 100000; t++) {
+                sink.record(500000, t, t % 2, (long) t << 20);
+            }
+        }
+
+        List<String> rows = new ArrayList<>();
+        BinaryResultFormat.read(path, (n, t, estimator, value) -> rows.add(n + "," + t + "," + estimator + "," + value));
+        assertEquals(100000, rows.size());
+        assertEquals("500000,0,Unbiased,0", rows.get(0));
+        assertEquals("500000,99999,BarianceOpt," + (99999L << 20), rows.get(99999));
+    }
+
+    @Test
+    @Timeout(10)
+    public void testFormatFailureSurfacesInsteadOfBlocking() {
+        ResultSink.Format failing = new ResultSink.Format() {
+            @Override
+            public void header(String[] estimators, String valueColumn) {
+            }
+
+            @Override
+            public void write(ResultSink.Batch batch) {
+                throw new IllegalStateException("format failed");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        // Either a later record or close reports it, depending on when the flusher gets there
+        RuntimeException e = assertThrows(RuntimeException.class, () -> {
+            try (ResultSink sink = new ResultSink(failing, new String[]{"Unbiased"}, "RuntimeNs", 4)) {
+                for (int t = 0; t < 1000; t++) sink.record(100, t, 0, t);
+            }
+        });
+        Throwable root = e.getCause() != null ? e.getCause() : e;
+        assertEquals("format failed", root.getMessage());
+    }
+}
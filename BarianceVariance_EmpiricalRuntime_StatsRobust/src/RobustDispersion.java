@@ -0,0 +1,287 @@
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+// Dispersion from order statistics, found with Selection in linear time instead of a sort:
+//  quantile, iqr: linear interpolation between order statistics (type 7, numpy's default)
+//  mad: median of |x - median|
+//  trimmedVariance: unbiased variance of what is left after dropping floor(trim * n) values at each end
+//  winsorizedVariance: the same values clamped to the remaining extremes instead, over n - 1
+// madVariance and iqrVariance rescale MAD and IQR to a variance (consistent for normal data); they
+// are what the registry returns, so the robust rows share the Estimator column with the rest.
+// Array and buffer methods select on a per-thread scratch copy; *InPlace methods permute their input.
+public final class RobustDispersion {
+
+    public static final double MAD_TO_SIGMA = 1.482602218505602;  // 1 / Phi^-1(3/4)
+    public static final double IQR_TO_SIGMA = 1.3489795003921634; // 2 Phi^-1(3/4)
+    public static final double DEFAULT_TRIM = 0.1;
+
+    private static final ThreadLocal<double[]> SCRATCH = ThreadLocal.withInitial(() -> new double[0]);
+
+    private RobustDispersion() {
+    }
+
+    static double[] scratch(int n) {
+        double[] s = SCRATCH.get();
+        if (s.length < n) {
+            s = new double[n];
+            SCRATCH.set(s);
+        }
+        return s;
+    }
+
+    private static double[] copy(double[] x, int from, int to) {
+        double[] s = scratch(to - from);
+        System.arraycopy(x, from, s, 0, to - from);
+        return s;
+    }
+
+    private static double[] copy(DoubleBuffer x) {
+        double[] s = scratch(x.remaining());
+        x.get(x.position(), s, 0, x.remaining());
+        return s;
+    }
+
+    public static double quantile(double[] x, int from, int to, double q) {
+        return quantileInPlace(copy(x, from, to), 0, to - from, q);
+    }
+
+    public static double median(double[] x, int from, int to) {
+        return medianInPlace(copy(x, from, to), 0, to - from);
+    }
+
+    public static double iqr(double[] x, int from, int to) {
+        return iqrInPlace(copy(x, from, to), 0, to - from);
+    }
+
+    public static double mad(double[] x, int from, int to) {
+        return madInPlace(copy(x, from, to), 0, to - from);
+    }
+
+    public static double madVariance(double[] x, int from, int to) {
+        double sigma = MAD_TO_SIGMA * mad(x, from, to);
+        return sigma * sigma;
+    }
+
+    public static double madVariance(DoubleBuffer x) {
+        double sigma = MAD_TO_SIGMA * madInPlace(copy(x), 0, x.remaining());
+        return sigma * sigma;
+    }
+
+    public static double iqrVariance(double[] x, int from, int to) {
+        double sigma = iqr(x, from, to) / IQR_TO_SIGMA;
+        return sigma * sigma;
+    }
+
+    public static double iqrVariance(DoubleBuffer x) {
+        double sigma = iqrInPlace(copy(x), 0, x.remaining()) / IQR_TO_SIGMA;
+        return sigma * sigma;
+    }
+
+    public static double trimmedVariance(double[] x, int from, int to) {
+        return trimmedVariance(x, from, to, DEFAULT_TRIM);
+    }
+
+    public static double trimmedVariance(double[] x, int from, int to, double trim) {
+        return trimmedVarianceInPlace(copy(x, from, to), 0, to - from, trim);
+    }
+
+    public static double trimmedVariance(DoubleBuffer x) {
+        return trimmedVarianceInPlace(copy(x), 0, x.remaining(), DEFAULT_TRIM);
+    }
+
+    public static double winsorizedVariance(double[] x, int from, int to) {
+        return winsorizedVariance(x, from, to, DEFAULT_TRIM);
+    }
+
+    public static double winsorizedVariance(double[] x, int from, int to, double trim) {
+        return winsorizedVarianceInPlace(copy(x, from, to), 0, to - from, trim);
+    }
+
+    public static double winsorizedVariance(DoubleBuffer x) {
+        return winsorizedVarianceInPlace(copy(x), 0, x.remaining(), DEFAULT_TRIM);
+    }
+
+    // Baseline for the selection kernels: the same IQR after a full sort of the copy
+    public static double sortedIqrVariance(double[] x, int from, int to) {
+        int n = to - from;
+        double[] a = copy(x, from, to);
+        Arrays.sort(a, 0, n);
+        double sigma = (sortedQuantile(a, n, 0.75) - sortedQuantile(a, n, 0.25)) / IQR_TO_SIGMA;
+        return sigma * sigma;
+    }
+
+    static double sortedQuantile(double[] sorted, int n, double q) {
+        int lo = lower(n, q);
+        return interpolate(sorted[lo], sorted[Math.min(n - 1, lo + 1)], n, q);
+    }
+
+    private static int lower(int n, double q) {
+        return (int) Math.floor((n - 1) * q);
+    }
+
+    private static double interpolate(double lo, double next, int n, double q) {
+        double frac = (n - 1) * q - lower(n, q);
+        return frac == 0 ? lo : lo + frac * (next - lo);
+    }
+
+    static int trimCount(int n, double trim) {
+        if (!(trim >= 0 && trim < 0.5)) throw new IllegalArgumentException("trim must be in [0, 0.5): " + trim);
+        int g = (int) Math.floor(trim * n);
+        if (n - 2 * g < 2) throw new IllegalArgumentException("Trimming " + g + " of " + n + " values at each end leaves fewer than 2");
+        return g;
+    }
+
+    public static double quantileInPlace(double[] a, int from, int to, double q) {
+        int n = to - from;
+        int lo = lower(n, q);
+        double v = Selection.select(a, from, to, from + lo);
+        if (lo + 1 >= n) return v;
+        // Everything right of from + lo is >= v, so the next order statistic is their minimum
+        return interpolate(v, Selection.min(a, from + lo + 1, to), n, q);
+    }
+
+    public static double medianInPlace(double[] a, int from, int to) {
+        int n = to - from;
+        int mid = from + n / 2;
+        double v = Selection.select(a, from, to, mid);
+        if ((n & 1) == 1) return v;
+        return 0.5 * Selection.max(a, from, mid) + 0.5 * v;
+    }
+
+    public static double iqrInPlace(double[] a, int from, int to) {
+        double q1 = quantileInPlace(a, from, to, 0.25);
+        return quantileInPlace(a, from, to, 0.75) - q1;
+    }
+
+    public static double madInPlace(double[] a, int from, int to) {
+        double m = medianInPlace(a, from, to);
+        for (int i = from; i < to; i++) a[i] = Math.abs(a[i] - m);
+        return medianInPlace(a, from, to);
+    }
+
+    // Moves the g largest values after to - g - 1 and the g smallest before from + g, leaving the
+    // values of ranks g and n - g - 1 at those two positions
+    private static void trim(double[] a, int from, int to, int g) {
+        if (g == 0) return;
+        Selection.select(a, from, to, to - g - 1);
+        Selection.select(a, from, to - g - 1, from + g);
+    }
+
+    public static double trimmedVarianceInPlace(double[] a, int from, int to, double trim) {
+        int g = trimCount(to - from, trim);
+        trim(a, from, to, g);
+        return VarianceKernels.unbiasedVariance(a, from + g, to - g);
+    }
+
+    public static double winsorizedVarianceInPlace(double[] a, int from, int to, double trim) {
+        int n = to - from;
+        int g = trimCount(n, trim);
+        trim(a, from, to, g);
+        if (g == 0) return VarianceKernels.unbiasedVariance(a, from, to);
+        double lo = a[from + g], hi = a[to - g - 1];
+        double sum = g * (lo + hi);
+        for (int i = from + g; i < to - g; i++) sum += a[i];
+        double mean = sum / n;
+        double m2 = g * ((lo - mean) * (lo - mean) + (hi - mean) * (hi - mean));
+        for (int i = from + g; i < to - g; i++) m2 += (a[i] - mean) * (a[i] - mean);
+        return m2 / (n - 1);
+    }
+
+    // Parallel variants: order statistics from Selection.parallelSelect, linear passes on the pool.
+    // Ranges of at most `threshold` values take the sequential path.
+
+    public static double parallelQuantile(ForkJoinPool pool, double[] x, int from, int to, double q, int threshold) {
+        int n = to - from;
+        int lo = lower(n, q);
+        double[] v = Selection.parallelSelect(pool, x, from, to, lo, Math.min(n - 1, lo + 1), threshold);
+        return interpolate(v[0], v[1], n, q);
+    }
+
+    public static double parallelMedian(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        int n = to - from;
+        double[] v = Selection.parallelSelect(pool, x, from, to, (n - 1) / 2, n / 2, threshold);
+        return 0.5 * v[0] + 0.5 * v[1];
+    }
+
+    public static double parallelIqrVariance(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        if (to - from <= threshold) return iqrVariance(x, from, to);
+        double sigma = (parallelQuantile(pool, x, from, to, 0.75, threshold)
+                - parallelQuantile(pool, x, from, to, 0.25, threshold)) / IQR_TO_SIGMA;
+        return sigma * sigma;
+    }
+
+    public static double parallelMad(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        int n = to - from;
+        if (n <= threshold) return mad(x, from, to);
+        double m = parallelMedian(pool, x, from, to, threshold);
+        double[] deviations = new double[n];
+        Selection.forEachChunk(pool, (n + threshold - 1) / threshold, c -> {
+            for (int i = c * threshold, end = Math.min(n, i + threshold); i < end; i++) {
+                deviations[i] = Math.abs(x[from + i] - m);
+            }
+        });
+        return parallelMedian(pool, deviations, 0, n, threshold);
+    }
+
+    public static double parallelMadVariance(ForkJoinPool pool, double[] x, int from, int to, int threshold) {
+        double sigma = MAD_TO_SIGMA * parallelMad(pool, x, from, to, threshold);
+        return sigma * sigma;
+    }
+
+    public static double parallelTrimmedVariance(ForkJoinPool pool, double[] x, int from, int to, double trim, int threshold) {
+        if (to - from <= threshold) return trimmedVariance(x, from, to, trim);
+        return trimmedMoments(pool, x, from, to, trim, threshold, false);
+    }
+
+    public static double parallelWinsorizedVariance(ForkJoinPool pool, double[] x, int from, int to, double trim, int threshold) {
+        if (to - from <= threshold) return winsorizedVariance(x, from, to, trim);
+        return trimmedMoments(pool, x, from, to, trim, threshold, true);
+    }
+
+    // With lo and hi the values of ranks g and n - g - 1, one pass collects sums of x - lo over
+    // lo < x < hi and the count of x >= hi; values at lo add nothing to the shifted sums
+    private static double trimmedMoments(ForkJoinPool pool, double[] x, int from, int to, double trim,
+                                         int threshold, boolean winsorize) {
+        int n = to - from;
+        int g = trimCount(n, trim);
+        if (g == 0) return ParallelVariance.parallelUnbiasedVariance(pool, x, from, to, threshold);
+        double lo = Selection.parallelSelect(pool, x, from, to, g, g, threshold)[0];
+        double hi = Selection.parallelSelect(pool, x, from, to, n - g - 1, n - g - 1, threshold)[0];
+        if (lo == hi) return 0;
+
+        int chunks = (n + threshold - 1) / threshold;
+        double[] sums = new double[2 * chunks];
+        long[] atHiCounts = new long[chunks];
+        Selection.forEachChunk(pool, chunks, c -> {
+            double sum = 0, sumSq = 0;
+            long atHi = 0;
+            for (int i = from + c * threshold, end = Math.min(to, i + threshold); i < end; i++) {
+                double v = x[i];
+                if (v >= hi) atHi++;
+                else if (v > lo) {
+                    double d = v - lo;
+                    sum += d;
+                    sumSq += d * d;
+                }
+            }
+            sums[2 * c] = sum;
+            sums[2 * c + 1] = sumSq;
+            atHiCounts[c] = atHi;
+        });
+        double sum = 0, sumSq = 0;
+        long atHi = 0;
+        for (int c = 0; c < chunks; c++) {
+            sum += sums[2 * c];
+            sumSq += sums[2 * c + 1];
+            atHi += atHiCounts[c];
+        }
+        // Copies of hi kept: ranks n - atHi .. n - g - 1, plus the g clamped ones when winsorizing
+        long copiesHi = atHi - g + (winsorize ? g : 0);
+        double d = hi - lo;
+        sum += copiesHi * d;
+        sumSq += copiesHi * d * d;
+        long m = winsorize ? n : n - 2L * g;
+        return (sumSq - sum * sum / m) / (m - 1);
+    }
+}
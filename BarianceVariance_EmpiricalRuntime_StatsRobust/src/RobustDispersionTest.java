@@ -0,0 +1,153 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public class RobustDispersionTest {
+
+    // Sort-based references for the selection kernels
+    private static double sortedQuantile(double[] x, double q) {
+        double[] s = x.clone();
+        Arrays.sort(s);
+        return RobustDispersion.sortedQuantile(s, s.length, q);
+    }
+
+    private static double sortedMad(double[] x) {
+        double m = sortedQuantile(x, 0.5);
+        double[] dev = new double[x.length];
+        for (int i = 0; i < x.length; i++) dev[i] = Math.abs(x[i] - m);
+        return sortedQuantile(dev, 0.5);
+    }
+
+    private static double sortedTrimmedVariance(double[] x, double trim, boolean winsorize) {
+        double[] s = x.clone();
+        Arrays.sort(s);
+        int n = s.length, g = (int) Math.floor(trim * n);
+        if (winsorize) {
+            for (int i = 0; i < g; i++) {
+                s[i] = s[g];
+                s[n - 1 - i] = s[n - 1 - g];
+            }
+            return VarianceKernels.unbiasedVariance(s);
+        }
+        return VarianceKernels.unbiasedVariance(s, g, n - g);
+    }
+
+    private static double[] gammaSample(Random rand, int n) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) x[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+        return x;
+    }
+
+    @Test
+    public void testSelectOnAwkwardInputs() {
+        Random rand = new Random(42L);
+        int n = 5000;
+        double[][] inputs = new double[5][n];
+        for (int i = 0; i < n; i++) {
+            inputs[0][i] = i;                           // sorted
+            inputs[1][i] = n - i;                       // reversed
+            inputs[2][i] = 7.0;                         // all equal
+            inputs[3][i] = Math.min(i, n - i);          // organ pipe
+            inputs[4][i] = rand.nextInt(3);             // heavy ties
+        }
+        for (double[] input : inputs) {
+            double[] sorted = input.clone();
+            Arrays.sort(sorted);
+            for (int k : new int[]{0, 1, n / 4, n / 2, n - 2, n - 1}) {
+                double[] a = input.clone();
+                assertEquals(sorted[k], Selection.select(a, 0, n, k));
+                for (int i = 0; i < k; i++) assertTrue(a[i] <= a[k]);
+                for (int i = k + 1; i < n; i++) assertTrue(a[i] >= a[k]);
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> Selection.select(new double[3], 0, 3, 3));
+    }
+
+    @Test
+    public void testMatchesSortedReference() {
+        Random rand = new Random(7L);
+        for (int n : new int[]{2, 3, 4, 5, 10, 101, 1000, 4096}) {
+            double[] x = gammaSample(rand, n);
+            double[] before = x.clone();
+            for (double q : new double[]{0.0, 0.1, 0.25, 0.5, 0.75, 0.9, 1.0}) {
+                assertEquals(sortedQuantile(x, q), RobustDispersion.quantile(x, 0, n, q), 0.0, "q=" + q + " n=" + n);
+            }
+            assertEquals(sortedQuantile(x, 0.5), RobustDispersion.median(x, 0, n), 0.0);
+            assertEquals(sortedQuantile(x, 0.75) - sortedQuantile(x, 0.25), RobustDispersion.iqr(x, 0, n), 1e-15);
+            assertEquals(sortedMad(x), RobustDispersion.mad(x, 0, n), 1e-15);
+            double var = VarianceKernels.unbiasedVariance(x);
+            assertEquals(sortedTrimmedVariance(x, 0.1, false), RobustDispersion.trimmedVariance(x, 0, n), 1e-12 * var);
+            assertEquals(sortedTrimmedVariance(x, 0.25, true), RobustDispersion.winsorizedVariance(x, 0, n, 0.25), 1e-12 * var);
+            assertEquals(RobustDispersion.sortedIqrVariance(x, 0, n), RobustDispersion.iqrVariance(x, 0, n), 1e-12 * var);
+            assertArrayEquals(before, x, "input was modified");
+        }
+        assertEquals(2.5, RobustDispersion.median(new double[]{4, 1, 3, 2}, 0, 4));
+        assertEquals(1.0, RobustDispersion.mad(new double[]{1, 1, 2, 2, 4, 6, 9}, 0, 7));
+    }
+
+    @Test
+    public void testRangeBufferAndTrimBounds() {
+        double[] testData = {100.0, 2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0, -100.0};
+        DoubleBuffer buffer = DoubleBuffer.wrap(testData, 1, 8);
+        assertEquals(RobustDispersion.madVariance(testData, 1, 9), RobustDispersion.madVariance(buffer));
+        assertEquals(RobustDispersion.trimmedVariance(testData, 1, 9), RobustDispersion.trimmedVariance(buffer));
+        assertEquals(1, buffer.position());
+        // 8 values: trimming 12.5% drops the 2.0 and the 9.0, winsorizing clamps them to 4.0 and 7.0
+        assertEquals(VarianceKernels.unbiasedVariance(new double[]{4, 4, 4, 5, 5, 7}),
+                RobustDispersion.trimmedVariance(testData, 1, 9, 0.125), 1e-12);
+        assertEquals(VarianceKernels.unbiasedVariance(new double[]{4, 4, 4, 4, 5, 5, 7, 7}),
+                RobustDispersion.winsorizedVariance(testData, 1, 9, 0.125), 1e-12);
+        assertThrows(IllegalArgumentException.class, () -> RobustDispersion.trimmedVariance(testData, 0, 10, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> RobustDispersion.trimmedVariance(testData, 0, 3, 0.4));
+    }
+
+    @Test
+    public void testParallelMatchesSequential() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Random rand = new Random(3L);
+            int n = 200_003, threshold = 1 << 12;
+            double[] x = gammaSample(rand, n);
+            // heavy ties at both trimming cuts
+            for (int i = 0; i < n; i += 3) x[i] = Math.floor(x[i]);
+            double[] before = x.clone();
+            double var = VarianceKernels.unbiasedVariance(x);
+
+            double[] sorted = x.clone();
+            Arrays.sort(sorted);
+            for (int k : new int[]{0, 1, n / 3, n / 2, n - 1}) {
+                double[] v = Selection.parallelSelect(pool, x, 0, n, k, Math.min(n - 1, k + 1), threshold);
+                assertEquals(sorted[k], v[0]);
+                assertEquals(sorted[Math.min(n - 1, k + 1)], v[1]);
+            }
+            assertEquals(RobustDispersion.iqrVariance(x, 0, n), RobustDispersion.parallelIqrVariance(pool, x, 0, n, threshold), 1e-12 * var);
+            assertEquals(RobustDispersion.mad(x, 0, n), RobustDispersion.parallelMad(pool, x, 0, n, threshold), 0.0);
+            assertEquals(RobustDispersion.trimmedVariance(x, 0, n),
+                    RobustDispersion.parallelTrimmedVariance(pool, x, 0, n, 0.1, threshold), 1e-10 * var);
+            assertEquals(RobustDispersion.winsorizedVariance(x, 0, n),
+                    RobustDispersion.parallelWinsorizedVariance(pool, x, 0, n, 0.1, threshold), 1e-10 * var);
+            assertEquals(RobustDispersion.trimmedVariance(x, 5, n - 5),
+                    RobustDispersion.parallelTrimmedVariance(pool, x, 5, n - 5, 0.1, threshold), 1e-10 * var);
+            assertArrayEquals(before, x, "input was modified");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRobustToOutliers() {
+        Random rand = new Random(11L);
+        int n = 10_000;
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) x[i] = rand.nextGaussian();
+        for (int i = 0; i < n / 100; i++) x[rand.nextInt(n)] = 1e6;
+        // 1% gross outliers swamp the moment estimator but barely move the robust ones
+        assertTrue(VarianceKernels.unbiasedVariance(x) > 1e8);
+        assertEquals(1.0, RobustDispersion.madVariance(x, 0, n), 0.1);
+        assertEquals(1.0, RobustDispersion.iqrVariance(x, 0, n), 0.1);
+    }
+}
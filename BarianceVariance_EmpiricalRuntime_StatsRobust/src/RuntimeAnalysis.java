@@ -0,0 +1,166 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// In-process replacement for the pandas/statsmodels post-processing: timings stream into one
+// RuntimeSummary per (estimator, sample size), and at the end the summary table and the
+// log(value) ~ log(n) + C(estimator) OLS fit on IQR-filtered data are written as
+// <prefix>_summary.csv and <prefix>_regression.txt. Memory is O(cells), not O(rows).
+public final class RuntimeAnalysis implements ResultSink.RowConsumer {
+
+    final String valueColumn;
+    final List<String> estimators = new ArrayList<>();
+    final Map<String, Integer> ids = new HashMap<>();
+    final List<TreeMap<Integer, RuntimeSummary>> cells = new ArrayList<>();
+    // Rows arrive grouped by sample size, so the last cell per estimator is almost always the hit
+    int[] lastSampleSize = new int[0];
+    RuntimeSummary[] lastCell = new RuntimeSummary[0];
+
+    public RuntimeAnalysis(String valueColumn, String... estimators) {
+        this.valueColumn = valueColumn;
+        for (String name : estimators) estimatorId(name);
+    }
+
+    public int estimatorId(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        int next = estimators.size();
+        estimators.add(name);
+        ids.put(name, next);
+        cells.add(new TreeMap<>());
+        lastSampleSize = Arrays.copyOf(lastSampleSize, next + 1);
+        lastCell = Arrays.copyOf(lastCell, next + 1);
+        return next;
+    }
+
+    public void add(int sampleSize, int estimatorId, long value) {
+        RuntimeSummary cell = lastCell[estimatorId];
+        if (cell == null || lastSampleSize[estimatorId] != sampleSize) {
+            cell = cells.get(estimatorId).computeIfAbsent(sampleSize, n -> new RuntimeSummary());
+            lastCell[estimatorId] = cell;
+            lastSampleSize[estimatorId] = sampleSize;
+        }
+        cell.add(value);
+    }
+
+    @Override
+    public void accept(int sampleSize, int trial, String estimator, long value) {
+        add(sampleSize, estimatorId(estimator), value);
+    }
+
+    public RuntimeSummary cell(String estimator, int sampleSize) {
+        Integer id = ids.get(estimator);
+        return id == null ? null : cells.get(id).get(sampleSize);
+    }
+
+    public void merge(RuntimeAnalysis other) {
+        for (int e = 0; e < other.estimators.size(); e++) {
+            TreeMap<Integer, RuntimeSummary> mine = cells.get(estimatorId(other.estimators.get(e)));
+            other.cells.get(e).forEach((n, summary) -> mine.computeIfAbsent(n, k -> new RuntimeSummary()).merge(summary));
+        }
+    }
+
+    // log(value) = b0 + b1 log(n) + sum_e d_e [estimator = e], first estimator as the baseline.
+    // Observations are the sketch buckets inside each cell's IQR fences, weighted by their counts;
+    // zero readings have no logarithm and are left out.
+    public LeastSquares.Fit regression() {
+        int k = 1 + estimators.size();
+        LeastSquares ols = new LeastSquares(k);
+        double[] x = new double[k];
+        x[0] = 1.0;
+        for (int e = 0; e < estimators.size(); e++) {
+            int dummy = e == 0 ? -1 : 1 + e;
+            for (Map.Entry<Integer, RuntimeSummary> entry : cells.get(e).entrySet()) {
+                RuntimeSummary cell = entry.getValue();
+                double lo = cell.lowerFence(), hi = cell.upperFence();
+                Arrays.fill(x, 1, k, 0.0);
+                x[1] = Math.log(entry.getKey());
+                if (dummy > 0) x[dummy] = 1.0;
+                cell.sketch.forEach((v, c) -> {
+                    if (v > 0 && v >= lo && v <= hi) ols.add(x, Math.log(v), c);
+                });
+            }
+        }
+        return ols.weight() > k ? ols.fit() : null;
+    }
+
+    public void write(String prefix) throws IOException {
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(prefix + "_summary.csv"))) {
+            out.write("SampleSize,Estimator,Count,Mean,StdDev,Min,Q1,Median,Q3,Max,IqrCount,IqrMean\n");
+            for (int e = 0; e < estimators.size(); e++) {
+                for (Map.Entry<Integer, RuntimeSummary> entry : cells.get(e).entrySet()) {
+                    RuntimeSummary s = entry.getValue();
+                    out.write(entry.getKey() + "," + estimators.get(e) + "," + s.count() + "," + s.mean() + ","
+                            + s.stdDev() + "," + s.min() + "," + s.quantile(0.25) + "," + s.quantile(0.5) + ","
+                            + s.quantile(0.75) + "," + s.max() + "," + s.iqrCount() + "," + s.iqrMean() + "\n");
+                }
+            }
+        }
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(prefix + "_regression.txt"))) {
+            out.write(regressionReport());
+        }
+    }
+
+    public String regressionReport() {
+        StringBuilder report = new StringBuilder();
+        report.append("OLS: log(").append(valueColumn).append(") ~ log(SampleSize) + C(Estimator), IQR-filtered per cell\n");
+        LeastSquares.Fit fit = regression();
+        if (fit == null) {
+            return report.append("Not identifiable: too few positive observations or a singular design\n").toString();
+        }
+        report.append(String.format("Observations: %.0f   R-squared: %.4f%n", fit.observations, fit.rSquared));
+        report.append(String.format("%-32s %12s %12s %10s %10s%n", "", "coef", "std err", "t", "P>|t|"));
+        for (int i = 0; i < fit.coefficients.length; i++) {
+            String name = i == 0 ? "Intercept" : i == 1 ? "log(SampleSize)" : "C(Estimator)[T." + estimators.get(i - 1) + "]";
+            report.append(String.format("%-32s %12.6f %12.6f %10.3f %10.3g%n", name, fit.coefficients[i],
+                    fit.standardErrors[i], fit.coefficients[i] / fit.standardErrors[i], fit.pValue(i)));
+        }
+        report.append("Baseline estimator: ").append(estimators.get(0))
+                .append("; p-values from the normal approximation to t\n");
+        return report.toString();
+    }
+
+    // Offline use on existing output: RuntimeAnalysis <results.csv|results.bin> [prefix]
+    public static void main(String[] args) throws IOException {
+        String path = args[0];
+        String prefix = args.length > 1 ? args[1]
+                : path.lastIndexOf('.') > path.lastIndexOf('/') ? path.substring(0, path.lastIndexOf('.')) : path;
+        RuntimeAnalysis analysis = new RuntimeAnalysis(valueColumn(path));
+        read(path, analysis);
+        analysis.write(prefix);
+        System.out.print(analysis.regressionReport());
+        System.out.println("Summary written to " + prefix + "_summary.csv and " + prefix + "_regression.txt");
+    }
+
+    // Value column of a results file: the CSV header's fourth field, RuntimeNs for .bin files
+    static String valueColumn(String path) throws IOException {
+        if (path.endsWith(".bin")) return "RuntimeNs";
+        try (BufferedReader in = new BufferedReader(new FileReader(path))) {
+            return in.readLine().split(",")[3];
+        }
+    }
+
+    // Replays every row of a SampleSize,Trial,Estimator,<value> CSV or a BinaryResultFormat file
+    static void read(String path, ResultSink.RowConsumer consumer) throws IOException {
+        if (path.endsWith(".bin")) {
+            BinaryResultFormat.read(Paths.get(path), consumer);
+            return;
+        }
+        try (BufferedReader in = new BufferedReader(new FileReader(path), 1 << 20)) {
+            in.readLine();
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                String[] f = line.split(",");
+                consumer.accept(Integer.parseInt(f[0]), Integer.parseInt(f[1]), f[2], Long.parseLong(f[3]));
+            }
+        }
+    }
+}
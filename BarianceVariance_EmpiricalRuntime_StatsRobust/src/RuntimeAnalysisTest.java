@@ -0,0 +1,84 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class RuntimeAnalysisTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testSketchQuantilesAndMerge() {
+        Random rand = new Random(42L);
+        int n = 100000;
+        long[] values = new long[n];
+        QuantileSketch whole = new QuantileSketch(), left = new QuantileSketch(), right = new QuantileSketch();
+        for (int i = 0; i < n; i++) {
+            values[i] = (long) (1000 * Math.exp(rand.nextGaussian())) + (i % 1000 == 0 ? 1_000_000 : 0);
+            whole.add(values[i]);
+            (i < n / 3 ? left : right).add(values[i]);
+        }
+        left.merge(right);
+        Arrays.sort(values);
+
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.99}) {
+            double exact = values[(int) (q * (n - 1))];
+            assertEquals(exact, whole.quantile(q), 0.011 * exact, "q=" + q);
+            assertEquals(whole.quantile(q), left.quantile(q), 0.0, "merged q=" + q);
+        }
+        assertEquals(n, left.count());
+    }
+
+    @Test
+    public void testLogLinearFitRecoversPowerLaw() {
+        // runtime = 5 * n^0.9 * (2 for Unbiased) * lognormal noise, plus rare huge outliers
+        Random rand = new Random(42L);
+        RuntimeAnalysis analysis = new RuntimeAnalysis("RuntimeNs", "BarianceOpt", "Unbiased");
+        for (int n : new int[]{100, 1000, 10000, 100000}) {
+            for (int t = 0; t < 5000; t++) {
+                for (int e = 0; e < 2; e++) {
+                    double ns = 5 * Math.pow(n, 0.9) * (e == 1 ? 2 : 1) * Math.exp(0.05 * rand.nextGaussian());
+                    if (t % 500 == 0) ns *= 100;
+                    analysis.add(n, e, Math.round(ns));
+                }
+            }
+        }
+        LeastSquares.Fit fit = analysis.regression();
+        assertEquals(Math.log(5), fit.coefficients[0], 0.05);
+        assertEquals(0.9, fit.coefficients[1], 0.005);
+        assertEquals(Math.log(2), fit.coefficients[2], 0.01);
+
+        RuntimeSummary cell = analysis.cell("Unbiased", 1000);
+        assertEquals(5000, cell.count());
+        // The 10 outliers are always outside; bucket granularity moves the fences by ~1%
+        assertTrue(cell.iqrCount() <= 4990 && cell.iqrCount() > 4800, "IQR count " + cell.iqrCount());
+        assertEquals(10 * Math.pow(1000, 0.9), cell.iqrMean(), 0.02 * cell.iqrMean());
+    }
+
+    @Test
+    public void testSummaryFormatThroughSink() throws IOException {
+        String prefix = dir.resolve("runtime").toString();
+        String[] estimators = {"Unbiased", "BarianceOpt"};
+        try (ResultSink sink = new ResultSink(new SummaryResultFormat(prefix, null), estimators, "RuntimeNs", 7)) {
+            for (int t = 0; t < 50; t++) {
+                sink.record(100, t, 0, 1000 + t);
+                sink.record(100, t, 1, 500 + t);
+                sink.record(1000, t, 0, 10000 + t);
+                sink.record(1000, t, 1, 5000 + t);
+            }
+        }
+
+        List<String> summary = Files.readAllLines(Path.of(prefix + "_summary.csv"));
+        assertEquals(5, summary.size());
+        assertTrue(summary.get(1).startsWith("100,Unbiased,50,1024.5,"), summary.get(1));
+        String regression = Files.readString(Path.of(prefix + "_regression.txt"));
+        assertTrue(regression.contains("C(Estimator)[T.BarianceOpt]"), regression);
+    }
+}
@@ -0,0 +1,80 @@
+// Everything the analysis keeps for one (estimator, sample size) cell: exact online moments and
+// extremes plus a QuantileSketch for quartiles and IQR filtering. Cells merge, so per-thread or
+// per-process summaries can be combined without the raw timings.
+public final class RuntimeSummary {
+
+    final StreamingBariance moments = new StreamingBariance();
+    final QuantileSketch sketch = new QuantileSketch();
+    long min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+
+    public void add(long value) {
+        moments.add(value);
+        sketch.add(value);
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    public void merge(RuntimeSummary other) {
+        moments.merge(other.moments);
+        sketch.merge(other.sketch);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return moments.count();
+    }
+
+    public double mean() {
+        return moments.mean();
+    }
+
+    public double stdDev() {
+        return Math.sqrt(moments.variance());
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double quantile(double q) {
+        return sketch.quantile(q);
+    }
+
+    // Tukey fences Q1 - 1.5 IQR and Q3 + 1.5 IQR, as in the IQR-removed plots
+    public double lowerFence() {
+        double q1 = quantile(0.25), q3 = quantile(0.75);
+        return q1 - 1.5 * (q3 - q1);
+    }
+
+    public double upperFence() {
+        double q1 = quantile(0.25), q3 = quantile(0.75);
+        return q3 + 1.5 * (q3 - q1);
+    }
+
+    // Count and mean of the values inside the fences, from the sketch buckets
+    public long iqrCount() {
+        double lo = lowerFence(), hi = upperFence();
+        long[] n = new long[1];
+        sketch.forEach((v, c) -> {
+            if (v >= lo && v <= hi) n[0] += c;
+        });
+        return n[0];
+    }
+
+    public double iqrMean() {
+        double lo = lowerFence(), hi = upperFence();
+        double[] acc = new double[2];
+        sketch.forEach((v, c) -> {
+            if (v >= lo && v <= hi) {
+                acc[0] += v * c;
+                acc[1] += c;
+            }
+        });
+        return acc[0] / acc[1];
+    }
+}
@@ -0,0 +1,25 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+// One reusable sample buffer per sample size, on heap or off heap (direct, native order).
+// A driver asks for the buffer once per sample size and refills it every trial, so no trial
+// leaves garbage behind for the next timed window.
+public final class SampleBuffers {
+
+    double[] heap = new double[0];
+    DoubleBuffer offHeap = DoubleBuffer.allocate(0);
+
+    public double[] heap(int n) {
+        if (heap.length != n) heap = new double[n];
+        return heap;
+    }
+
+    public DoubleBuffer offHeap(int n) {
+        if (offHeap.capacity() != n) {
+            offHeap = ByteBuffer.allocateDirect(8 * n).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        offHeap.clear();
+        return offHeap;
+    }
+}
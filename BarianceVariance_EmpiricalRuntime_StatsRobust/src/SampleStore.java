@@ -0,0 +1,153 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// Binary on-disk sample: a 64-byte header (magic, version, distribution, n, shape, scale, seed)
+// followed by n little-endian doubles. Reads go through read-only FileChannel.map windows, so the
+// estimators below stream over inputs larger than the heap without copying them.
+public final class SampleStore implements Closeable {
+
+    static final long MAGIC = 0x454C504D41535642L; // "BVSAMPLE" read little-endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int GAMMA = 0;
+    // A mapping is capped at 2 GB; 2^26 doubles = 512 MB per window
+    static final int DEFAULT_WINDOW = 1 << 26;
+
+    final FileChannel channel;
+    final int windowDoubles;
+    final int distribution;
+    final long n;
+    final double shape, scale;
+    final long seed;
+
+    private SampleStore(FileChannel channel, int windowDoubles) throws IOException {
+        this.channel = channel;
+        this.windowDoubles = windowDoubles;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getLong() != MAGIC) {
+            throw new IOException("Not a sample store");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported sample store version " + version);
+        }
+        distribution = header.getInt();
+        n = header.getLong();
+        if (n < 0) {
+            throw new IOException("Not a sample store");
+        }
+        shape = header.getDouble();
+        scale = header.getDouble();
+        seed = header.getLong();
+        if ((channel.size() - HEADER_BYTES) / 8 < n) {
+            throw new IOException("Sample store truncated: expected " + n + " values");
+        }
+    }
+
+    public static SampleStore open(Path path) throws IOException {
+        return open(path, DEFAULT_WINDOW);
+    }
+
+    public static SampleStore open(Path path, int windowDoubles) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new SampleStore(channel, windowDoubles);
+        } catch (IOException | RuntimeException e) {
+            // Foreign, truncated or unsupported file: the store never owned the channel
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+    // Writes GammaSampler.nextGamma(shape, scale) draws on Random(seed): the same data as the seeded drivers
+    public static void writeGamma(Path path, long n, double shape, double scale, long seed) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(MAGIC).putInt(VERSION).putInt(GAMMA).putLong(n)
+                    .putDouble(shape).putDouble(scale).putLong(seed);
+            header.clear();
+            while (header.hasRemaining()) out.write(header);
+
+            Random rand = new Random(seed);
+            ByteBuffer block = ByteBuffer.allocateDirect(8 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            for (long done = 0; done < n; ) {
+                block.clear();
+                while (block.hasRemaining() && done < n) {
+                    block.putDouble(GammaSampler.nextGamma(rand, shape, scale));
+                    done++;
+                }
+                block.flip();
+                while (block.hasRemaining()) out.write(block);
+            }
+        }
+    }
+
+    // Mapped view of values [from, from + len)
+    public DoubleBuffer window(long from, int len) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + 8 * from, 8L * len)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asDoubleBuffer();
+    }
+
+    public void accumulate(StreamingBariance acc) throws IOException {
+        for (long from = 0; from < n; from += windowDoubles) {
+            acc.addAll(window(from, (int) Math.min(windowDoubles, n - from)));
+        }
+    }
+
+    public double bariance() throws IOException {
+        double sum = 0, sumSq = 0;
+        for (long from = 0; from < n; from += windowDoubles) {
+            DoubleBuffer w = window(from, (int) Math.min(windowDoubles, n - from));
+            for (int i = 0, len = w.limit(); i < len; i++) {
+                double v = w.get(i);
+                sum += v;
+                sumSq += v * v;
+            }
+        }
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    // Two passes over the mapping, as unbiasedVariance does over the array
+    public double unbiasedVariance() throws IOException {
+        double mean = 0;
+        for (long from = 0; from < n; from += windowDoubles) {
+            DoubleBuffer w = window(from, (int) Math.min(windowDoubles, n - from));
+            for (int i = 0, len = w.limit(); i < len; i++) mean += w.get(i);
+        }
+        mean /= n;
+
+        double sumSq = 0;
+        for (long from = 0; from < n; from += windowDoubles) {
+            DoubleBuffer w = window(from, (int) Math.min(windowDoubles, n - from));
+            for (int i = 0, len = w.limit(); i < len; i++) {
+                double d = w.get(i) - mean;
+                sumSq += d * d;
+            }
+        }
+        return sumSq / (n - 1);
+    }
+
+    public long size() {
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
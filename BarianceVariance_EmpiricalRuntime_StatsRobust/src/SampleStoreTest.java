@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class SampleStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testMappedWindowsMatchInMemoryEstimators() throws IOException {
+        int n = 10007;
+        Path path = dir.resolve("gamma.bin");
+        SampleStore.writeGamma(path, n, 2.0, 2.0, 42L);
+
+        Random rand = new Random(42L);
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+        }
+
+        // Window smaller than n so estimators cross mapping boundaries
+        try (SampleStore store = SampleStore.open(path, 1000)) {
+            assertEquals(n, store.size());
+            assertEquals(42L, store.seed);
+            assertEquals(2.0, store.shape);
+            assertEquals(data[n - 1], store.window(n - 1, 1).get(0));
+            assertEquals(VarianceKernels.unbiasedVariance(data), store.unbiasedVariance());
+            assertEquals(VarianceKernels.optimizedBariance(data), store.bariance());
+
+            StreamingBariance acc = new StreamingBariance();
+            store.accumulate(acc);
+            assertEquals(VarianceKernels.optimizedUnbiasedVariance(data), acc.variance(), 1e-12);
+        }
+    }
+
+    @Test
+    public void testRejectsForeignFile() throws IOException {
+        Path path = dir.resolve("not-a-store.bin");
+        java.nio.file.Files.write(path, new byte[128]);
+        assertThrows(IOException.class, () -> SampleStore.open(path));
+    }
+
+    @Test
+    public void testRejectsCorruptCount() throws IOException {
+        // Valid magic and version, but a negative and an overflowing value count
+        for (long n : new long[]{-1, Long.MAX_VALUE / 4}) {
+            Path path = dir.resolve("corrupt.bin");
+            ByteBuffer header = ByteBuffer.allocate(SampleStore.HEADER_BYTES + 16).order(ByteOrder.LITTLE_ENDIAN);
+            header.putLong(SampleStore.MAGIC).putInt(SampleStore.VERSION).putInt(SampleStore.GAMMA).putLong(n);
+            java.nio.file.Files.write(path, header.array());
+            assertThrows(IOException.class, () -> SampleStore.open(path));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import java.util.List;
+
+// MainGammaDistSeeded on the TrialScheduler: generation runs ahead on worker threads, the main
+// thread only times estimators. Data comes from per-trial LXM streams, not the shared
+// Random(42) of the legacy driver, and is identical for any generator thread count.
+public class ScheduledGammaDistSeeded {
+
+    static int trials = 1000;
+    static long seed = 42L;
+    static volatile double blackhole; // keeps the JIT from dropping unused estimator results
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 && !args[0].startsWith("--")
+                ? Integer.parseInt(args[0]) : TrialScheduler.defaultGeneratorThreads();
+        List<VarianceEstimator> estimators = VarianceEstimators.fromArgs(args, "Unbiased", "BarianceOpt");
+        String[] names = VarianceEstimators.names(estimators);
+
+        ResultSink sink = ResultSink.open("./variance_bariance_runtime_gamma_scheduled.csv", names);
+        AllocationProbe probe = AllocationProbe.forRun("./variance_bariance_runtime_gamma_scheduled", names);
+        Instrumentation instruments = Instrumentation.forRun("./variance_bariance_runtime_gamma_scheduled", names);
+
+        System.out.println("Starting benchmark with " + trials + " trials per sample size on "
+                + threads + " generator threads...");
+        long runStart = System.currentTimeMillis();
+
+        try (TrialScheduler scheduler = new TrialScheduler(seed, threads)) {
+            scheduler.run(MainGammaDistSeeded.sampleSizes, trials, 2.0, 2.0, (n, t, data) -> {
+                if (t == 0) instruments.beginBatch(n);
+                for (int e = 0; e < estimators.size(); e++) {
+                    instruments.begin(e);
+                    probe.begin();
+                    long start = System.nanoTime();
+                    double result = estimators.get(e).estimate(data);
+                    long end = System.nanoTime();
+                    probe.end(n, t, e);
+                    instruments.end(e, end - start);
+                    sink.record(n, t, e, end - start);
+                    blackhole = result;
+                }
+
+                if (t == trials - 1) {
+                    instruments.endBatch();
+                    System.out.println("Completed sample size " + n);
+                }
+            });
+        }
+
+        sink.close();
+        probe.close();
+        instruments.close();
+        System.out.println("Benchmark complete in " + (System.currentTimeMillis() - runStart)
+                + " ms. Data written to variance_bariance_runtime_gamma_scheduled.csv");
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+}
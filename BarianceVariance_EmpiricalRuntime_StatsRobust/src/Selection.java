@@ -0,0 +1,194 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+// Order statistics without sorting. select is Floyd-Rivest: on ranges longer than SAMPLE_CUTOFF
+// it first selects within a sample around k (shuffled in from the whole range), so the partition
+// pivot lands next to the k-th value and the expected cost is n + min(k, n - k) + o(n)
+// comparisons. After 2 log2(n) rounds without converging the remaining range is sorted (the
+// introselect guard), bounding the worst case by n log n. Values must not be NaN.
+//
+// parallelSelect leaves its input untouched: two pivots bracketing the requested ranks come from
+// a strided sample, one fork-join pass counts the values below and between them, a second copies
+// the values in between (about n^(2/3) of them) into a band, and the ranks are selected there.
+public final class Selection {
+
+    static final int SAMPLE_CUTOFF = 600;
+    static final int DEFAULT_THRESHOLD = 1 << 16;
+    // Pivot ranks sit this many standard deviations of a sample quantile (at most sqrt(s) / 2) out
+    static final double GAP = 3.0;
+
+    private Selection() {
+    }
+
+    // Permutes a[from, to) so that a[k] is the value of rank k - from, with a[from, k) <= a[k] <= a(k, to)
+    public static double select(double[] a, int from, int to, int k) {
+        if (k < from || k >= to) throw new IndexOutOfBoundsException("k = " + k + " outside [" + from + ", " + to + ")");
+        floydRivest(a, from, to - 1, k);
+        return a[k];
+    }
+
+    // Bounds inclusive, as in Floyd and Rivest's SELECT. Every call, including the one on the
+    // sample, has its own budget of rounds
+    private static void floydRivest(double[] a, int left, int right, int k) {
+        int depth = 2 * (32 - Integer.numberOfLeadingZeros(right - left + 1));
+        while (right > left) {
+            if (depth-- == 0) {
+                Arrays.sort(a, left, right + 1);
+                return;
+            }
+            if (right - left > SAMPLE_CUTOFF) {
+                int n = right - left + 1, i = k - left + 1;
+                double z = Math.log(n);
+                double s = 0.5 * Math.exp(2 * z / 3);
+                double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * Math.signum(i - n / 2.0);
+                int newLeft = (int) Math.max(left, Math.floor(k - i * s / n + sd));
+                int newRight = (int) Math.min(right, Math.floor(k + (n - i) * s / n + sd));
+                shuffleIn(a, left, right, newLeft, newRight);
+                floydRivest(a, newLeft, newRight, k);
+            }
+            double t = a[k];
+            int i = left, j = right;
+            swap(a, left, k);
+            if (a[right] > t) swap(a, right, left);
+            while (i < j) {
+                swap(a, i, j);
+                i++;
+                j--;
+                while (a[i] < t) i++;
+                while (a[j] > t) j--;
+            }
+            if (a[left] == t) {
+                swap(a, left, j);
+            } else {
+                j++;
+                swap(a, j, right);
+            }
+            if (j <= k) left = j + 1;
+            if (k <= j) right = j - 1;
+        }
+    }
+
+    // The window around k only samples the range fairly if the range is in random order, which a
+    // range already partitioned by an earlier select (IQR's second quartile, MAD's deviations) is
+    // not; swap values drawn from all of [left, right] into it first
+    private static void shuffleIn(double[] a, int left, int right, int from, int to) {
+        long n = right - left + 1;
+        long state = GammaSampler.mix(((long) left << 32) ^ right);
+        for (int i = from; i <= to; i++) {
+            state = GammaSampler.mix(state);
+            swap(a, i, left + (int) Math.floorMod(state, n));
+        }
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    public static double min(double[] a, int from, int to) {
+        double m = a[from];
+        for (int i = from + 1; i < to; i++) m = Math.min(m, a[i]);
+        return m;
+    }
+
+    public static double max(double[] a, int from, int to) {
+        double m = a[from];
+        for (int i = from + 1; i < to; i++) m = Math.max(m, a[i]);
+        return m;
+    }
+
+    public static double[] parallelSelect(ForkJoinPool pool, double[] x, int from, int to, int k1, int k2) {
+        return parallelSelect(pool, x, from, to, k1, k2, DEFAULT_THRESHOLD);
+    }
+
+    // {value of rank k1, value of rank k2} in x[from, to), ranks relative to from, k1 <= k2. The band
+    // spans both ranks, so k2 - k1 should be small (a median pair, two neighbouring order statistics).
+    // Ranges of at most `threshold` values, and samples whose pivots miss the ranks, are selected
+    // sequentially on a copy.
+    public static double[] parallelSelect(ForkJoinPool pool, double[] x, int from, int to, int k1, int k2, int threshold) {
+        int n = to - from;
+        if (k1 < 0 || k2 < k1 || k2 >= n) throw new IndexOutOfBoundsException("ranks " + k1 + ", " + k2 + " of " + n);
+        if (n <= threshold) return sequentialSelect(Arrays.copyOfRange(x, from, to), k1, k2);
+
+        int s = (int) Math.min(n / 16, Math.max(1024, Math.pow(n, 2.0 / 3)));
+        double[] sample = new double[s];
+        for (int i = 0; i < s; i++) sample[i] = x[from + (int) ((long) i * n / s)];
+        double gap = GAP * Math.sqrt(s);
+        int r1 = (int) Math.floor((double) k1 * s / n - gap);
+        int r2 = (int) Math.ceil((double) k2 * s / n + gap);
+        double lo = r1 <= 0 ? Double.NEGATIVE_INFINITY : select(sample, 0, s, r1);
+        double hi = r2 >= s - 1 ? Double.POSITIVE_INFINITY : select(sample, Math.max(r1, 0), s, r2);
+
+        int chunks = (n + threshold - 1) / threshold;
+        int chunk = threshold;
+        int[] below = new int[chunks], inBand = new int[chunks];
+        forEachChunk(pool, chunks, c -> {
+            int b = 0, m = 0;
+            for (int i = from + c * chunk, end = Math.min(to, i + chunk); i < end; i++) {
+                double v = x[i];
+                if (v < lo) b++;
+                else if (v <= hi) m++;
+            }
+            below[c] = b;
+            inBand[c] = m;
+        });
+        int less = 0, bandSize = 0;
+        int[] offset = new int[chunks];
+        for (int c = 0; c < chunks; c++) {
+            less += below[c];
+            offset[c] = bandSize;
+            bandSize += inBand[c];
+        }
+        if (k1 < less || k2 >= less + bandSize) return sequentialSelect(Arrays.copyOfRange(x, from, to), k1, k2);
+
+        double[] band = new double[bandSize];
+        forEachChunk(pool, chunks, c -> {
+            int o = offset[c];
+            for (int i = from + c * chunk, end = Math.min(to, i + chunk); i < end; i++) {
+                double v = x[i];
+                if (v >= lo && v <= hi) band[o++] = v;
+            }
+        });
+        return sequentialSelect(band, k1 - less, k2 - less);
+    }
+
+    private static double[] sequentialSelect(double[] a, int k1, int k2) {
+        double v1 = select(a, 0, a.length, k1);
+        double v2 = k2 == k1 ? v1 : k2 == k1 + 1 ? min(a, k1 + 1, a.length) : select(a, k1 + 1, a.length, k2);
+        return new double[]{v1, v2};
+    }
+
+    // Runs body(c) for every c in [0, chunks) on the pool, halving the index range as ParallelVariance halves arrays
+    static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer body) {
+        if (chunks == 1) body.accept(0);
+        else pool.invoke(new ChunkTask(body, 0, chunks));
+    }
+
+    @SuppressWarnings("serial")
+    static class ChunkTask extends RecursiveAction {
+        final IntConsumer body;
+        final int from, to;
+
+        ChunkTask(IntConsumer body, int from, int to) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                body.accept(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(body, from, mid);
+            left.fork();
+            new ChunkTask(body, mid, to).compute();
+            left.join();
+        }
+    }
+}
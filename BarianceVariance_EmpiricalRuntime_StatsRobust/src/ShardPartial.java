@@ -0,0 +1,62 @@
+import java.nio.ByteBuffer;
+
+// (count, sum, sumSq, mean, M2) of one shard: sum and sumSq as in optimizedBariance, mean and M2
+// as in optimizedUnbiasedVariance's Welford pass, both accumulated in one loop. Partials merge by
+// adding the sums and combining (count, mean, M2) with PartialMoments.merge, so any split of a
+// sample gives both estimators of the whole. encode/decode is the fixed BYTES-long little-endian
+// form ShardedRun workers send (the buffer's byte order is the caller's).
+public final class ShardPartial {
+
+    static final int BYTES = 8 + 4 * 8;
+
+    final long count;
+    final double sum, sumSq, mean, m2;
+
+    ShardPartial(long count, double sum, double sumSq, double mean, double m2) {
+        this.count = count;
+        this.sum = sum;
+        this.sumSq = sumSq;
+        this.mean = mean;
+        this.m2 = m2;
+    }
+
+    public static ShardPartial of(double[] x, int from, int to) {
+        double sum = 0, sumSq = 0, mean = 0.0, m2 = 0.0;
+        for (int i = from; i < to; i++) {
+            double v = x[i];
+            sum += v;
+            sumSq += v * v;
+            double delta = v - mean;
+            mean += delta / (i - from + 1);
+            m2 += delta * (v - mean);
+        }
+        return new ShardPartial(to - from, sum, sumSq, mean, m2);
+    }
+
+    public ShardPartial merge(ShardPartial other) {
+        PartialMoments moments = new PartialMoments(count, mean, m2).merge(new PartialMoments(other.count, other.mean, other.m2));
+        return new ShardPartial(count + other.count, sum + other.sum, sumSq + other.sumSq, moments.mean, moments.m2);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    // optimizedBariance's formula on the merged sums
+    public double bariance() {
+        return (2.0 * sumSq / (count - 1)) - (2.0 * sum * sum) / (count * (count - 1.0));
+    }
+
+    // optimizedUnbiasedVariance's M2 / (n - 1) on the merged Welford state
+    public double unbiasedVariance() {
+        return m2 / (count - 1);
+    }
+
+    void encode(ByteBuffer out) {
+        out.putLong(count).putDouble(sum).putDouble(sumSq).putDouble(mean).putDouble(m2);
+    }
+
+    static ShardPartial decode(ByteBuffer in) {
+        return new ShardPartial(in.getLong(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+    }
+}
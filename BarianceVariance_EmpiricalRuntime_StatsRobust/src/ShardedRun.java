@@ -0,0 +1,345 @@
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// One sample sharded across worker processes. Each worker generates its shard once, then per trial
+// computes a ShardPartial and sends it over a socket; the coordinator merges the partials in shard
+// order. The sample is cut into blockSize-value blocks, block b drawn from GammaSampler.stream(seed, b),
+// and shard i of k owns blocks [i * blocks / k, (i + 1) * blocks / k), so every shard count sees
+// the same sample and the merged estimates agree up to rounding.
+//
+// Frames, little-endian over blocking socket channels:
+//   worker -> coordinator  HELLO    magic long, version int
+//   coordinator -> worker  ASSIGN   shard int, shards int, n long, seed long, blockSize int
+//   worker -> coordinator  READY    shard int, count long, generateNs long
+//   coordinator -> worker  GO       trial int (-1: exit)
+//   worker -> coordinator  PARTIAL  shard int, trial int, computeNs long, ShardPartial
+//
+// Coordinator: ShardedRun [prefix] [--shards=1,2,4] [--n=] [--trials=] [--seed=] [--bind=host]
+// [--port=] [--worker-jvm="-Xmx2g ..."] [--spawn=false] [--connect-timeout=120]. With --spawn=false
+// it waits for the workers of each shard count to connect instead of launching them, e.g. from
+// other nodes: ShardedRun --worker --coordinator=host:port. Workers that have not all connected
+// within --connect-timeout seconds, or a spawned worker exiting before it connects, end the run
+// and every spawned worker is destroyed. Writes <prefix>.csv with, per (shards, trial),
+// the wall time from GO to the last partial merged, the slowest worker's pass, the time spent
+// decoding and merging on the coordinator, and the slowest and total shard generation time.
+public class ShardedRun {
+
+    static final long MAGIC = 0x4452414853564231L; // "1BVSHARD" read little-endian
+    static final int VERSION = 1;
+    static final int BLOCK = 1 << 20;
+    static final int HELLO = 12, ASSIGN = 28, READY = 20, GO = 4, PARTIAL = 16 + ShardPartial.BYTES;
+
+    static int[] shardCounts = {1, 2, 4};
+    static long n = 100_000_000L;
+    static int trials = 10;
+    static long seed = 42L;
+    static long connectTimeoutMs = 120_000L;
+
+    public static final class Trial {
+        public final int shards, trial;
+        public final long wallNs, maxComputeNs, mergeNs;
+        // From the READY frames, so the same for every trial of a shard count
+        public final long maxGenerateNs, totalGenerateNs;
+        public final ShardPartial merged;
+
+        Trial(int shards, int trial, long wallNs, long maxComputeNs, long mergeNs, long maxGenerateNs,
+              long totalGenerateNs, ShardPartial merged) {
+            this.shards = shards;
+            this.trial = trial;
+            this.wallNs = wallNs;
+            this.maxComputeNs = maxComputeNs;
+            this.mergeNs = mergeNs;
+            this.maxGenerateNs = maxGenerateNs;
+            this.totalGenerateNs = totalGenerateNs;
+            this.merged = merged;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String prefix = "./variance_bariance_sharded";
+        String bind = "127.0.0.1", coordinator = null, workerJvm = "";
+        int port = 0;
+        boolean worker = false, spawn = true;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (!arg.startsWith("--")) prefix = arg;
+            else if (arg.equals("--worker")) worker = true;
+            else if (arg.startsWith("--coordinator=")) coordinator = value;
+            else if (arg.startsWith("--shards=")) shardCounts = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+            else if (arg.startsWith("--n=")) n = Long.parseLong(value);
+            else if (arg.startsWith("--trials=")) trials = Integer.parseInt(value);
+            else if (arg.startsWith("--seed=")) seed = Long.parseLong(value);
+            else if (arg.startsWith("--bind=")) bind = value;
+            else if (arg.startsWith("--port=")) port = Integer.parseInt(value);
+            else if (arg.startsWith("--worker-jvm=")) workerJvm = value;
+            else if (arg.startsWith("--spawn=")) spawn = Boolean.parseBoolean(value);
+            else if (arg.startsWith("--connect-timeout=")) connectTimeoutMs = Math.round(Double.parseDouble(value) * 1000);
+            else throw new IllegalArgumentException("Unknown argument: " + arg);
+        }
+        if (trials < 1) throw new IllegalArgumentException("--trials must be at least 1");
+        if (worker) {
+            if (coordinator == null) throw new IllegalArgumentException("--worker needs --coordinator=host:port");
+            int colon = coordinator.lastIndexOf(':');
+            work(new InetSocketAddress(coordinator.substring(0, colon), Integer.parseInt(coordinator.substring(colon + 1))));
+            return;
+        }
+
+        try (ServerSocketChannel server = ServerSocketChannel.open();
+             BufferedWriter writer = new BufferedWriter(new FileWriter(prefix + ".csv"))) {
+            server.bind(new InetSocketAddress(bind, port));
+            InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+            System.out.println("Coordinator listening on " + address.getHostString() + ":" + address.getPort());
+            writer.write("Shards,Trial,SampleSize,WallNs,MaxComputeNs,MergeNs,MaxGenerateNs,TotalGenerateNs,ElementsPerNs,Bariance,UnbiasedVariance\n");
+
+            ShardPartial reference = null;
+            for (int shards : shardCounts) {
+                List<Process> workers = spawn ? spawnWorkers(shards, address, workerJvm) : List.of();
+                if (!spawn) System.out.println("Waiting for " + shards + " workers");
+                List<Trial> results;
+                try {
+                    results = coordinate(server, shards, n, seed, BLOCK, trials, workers, connectTimeoutMs);
+                    for (Process p : workers) {
+                        if (!p.waitFor(connectTimeoutMs, TimeUnit.MILLISECONDS)) throw new IOException("Worker did not exit");
+                        if (p.exitValue() != 0) throw new IOException("Worker exited with " + p.exitValue());
+                    }
+                } finally {
+                    for (Process p : workers) p.destroyForcibly();
+                }
+
+                long[] wall = new long[results.size()], merge = new long[results.size()];
+                for (int t = 0; t < results.size(); t++) {
+                    Trial r = results.get(t);
+                    writer.write(shards + "," + r.trial + "," + n + "," + r.wallNs + "," + r.maxComputeNs + ","
+                            + r.mergeNs + "," + r.maxGenerateNs + "," + r.totalGenerateNs + "," + (double) n / r.wallNs + "," + r.merged.bariance() + ","
+                            + r.merged.unbiasedVariance() + "\n");
+                    wall[t] = r.wallNs;
+                    merge[t] = r.mergeNs;
+                }
+                writer.flush();
+                Arrays.sort(wall);
+                Arrays.sort(merge);
+                Trial last = results.get(results.size() - 1);
+                ShardPartial merged = last.merged;
+                if (reference == null) reference = merged;
+                System.out.printf("shards=%d: median wall %.3f ms (%.3f elements/ns), median merge %.1f us, "
+                                + "generate max %.3f ms / total %.3f ms, bariance %s (rel. diff %.2e), variance %s%n",
+                        shards, wall[wall.length / 2] / 1e6, (double) n / wall[wall.length / 2], merge[merge.length / 2] / 1e3,
+                        last.maxGenerateNs / 1e6, last.totalGenerateNs / 1e6,
+                        merged.bariance(), Math.abs(merged.bariance() / reference.bariance() - 1), merged.unbiasedVariance());
+            }
+        }
+        System.out.println("Sharded run complete. Data written to " + prefix + ".csv");
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+
+    // Same java binary and class path as this JVM; its JVM flags too unless --worker-jvm is given
+    static List<Process> spawnWorkers(int shards, InetSocketAddress address, String workerJvm) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        if (workerJvm.isBlank()) command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        else command.addAll(Arrays.asList(workerJvm.trim().split("\\s+")));
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), "ShardedRun", "--worker",
+                "--coordinator=" + address.getHostString() + ":" + address.getPort()));
+        List<Process> workers = new ArrayList<>(shards);
+        for (int i = 0; i < shards; i++) workers.add(new ProcessBuilder(command).inheritIO().start());
+        return workers;
+    }
+
+    public static List<Trial> coordinate(ServerSocketChannel server, int shards, long n, long seed, int blockSize, int trials)
+            throws IOException {
+        return coordinate(server, shards, n, seed, blockSize, trials, List.of(), connectTimeoutMs);
+    }
+
+    // Accepts `shards` workers, assigns shards in connection order and runs `trials` rounds. Fails
+    // if they have not all connected after connectTimeoutMs, or if one of `workers` exits first;
+    // a worker dying later closes its socket, which fails the next read.
+    public static List<Trial> coordinate(ServerSocketChannel server, int shards, long n, long seed, int blockSize, int trials,
+                                         List<Process> workers, long connectTimeoutMs) throws IOException {
+        if ((n + blockSize - 1) / blockSize < shards) throw new IllegalArgumentException(shards + " shards for " + n + " values");
+        SocketChannel[] channels = new SocketChannel[shards];
+        ByteBuffer frame = ByteBuffer.allocate(Math.max(PARTIAL, ASSIGN)).order(ByteOrder.LITTLE_ENDIAN);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(connectTimeoutMs);
+        try {
+            for (int i = 0; i < shards; i++) {
+                SocketChannel channel = accept(server, deadline, workers, i, shards);
+                channels[i] = channel;
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                read(channel, frame, HELLO);
+                if (frame.getLong() != MAGIC) throw new IOException("Not a ShardedRun worker: " + channel.getRemoteAddress());
+                int version = frame.getInt();
+                if (version != VERSION) throw new IOException("Unsupported worker protocol version " + version);
+                frame.clear();
+                frame.putInt(i).putInt(shards).putLong(n).putLong(seed).putInt(blockSize);
+                write(channel, frame);
+            }
+            long expected = 0, maxGenerate = 0, totalGenerate = 0;
+            for (int i = 0; i < shards; i++) {
+                read(channels[i], frame, READY);
+                int shard = frame.getInt();
+                if (shard != i) throw new IOException("READY from shard " + shard + " while expecting shard " + i);
+                expected += frame.getLong();
+                long generateNs = frame.getLong();
+                maxGenerate = Math.max(maxGenerate, generateNs);
+                totalGenerate += generateNs;
+            }
+            if (expected != n) throw new IOException("Shards hold " + expected + " values, expected " + n);
+
+            List<Trial> results = new ArrayList<>(trials);
+            for (int t = 0; t < trials; t++) {
+                long start = System.nanoTime();
+                for (SocketChannel channel : channels) sendGo(channel, frame, t);
+                ShardPartial merged = null;
+                long maxCompute = 0, mergeNs = 0;
+                for (int i = 0; i < shards; i++) {
+                    read(channels[i], frame, PARTIAL);
+                    long m0 = System.nanoTime();
+                    int shard = frame.getInt(), trial = frame.getInt();
+                    if (shard != i || trial != t) throw new IOException("Partial for shard " + shard + ", trial " + trial
+                            + " while expecting shard " + i + ", trial " + t);
+                    maxCompute = Math.max(maxCompute, frame.getLong());
+                    ShardPartial partial = ShardPartial.decode(frame);
+                    merged = merged == null ? partial : merged.merge(partial);
+                    mergeNs += System.nanoTime() - m0;
+                }
+                results.add(new Trial(shards, t, System.nanoTime() - start, maxCompute, mergeNs, maxGenerate, totalGenerate, merged));
+            }
+            for (SocketChannel channel : channels) sendGo(channel, frame, -1);
+            return results;
+        } finally {
+            for (SocketChannel channel : channels) {
+                if (channel != null) channel.close();
+            }
+        }
+    }
+
+    // Polls the server channel so spawned workers can be checked while waiting; accepted channels
+    // are in blocking mode whatever the server's mode is
+    private static SocketChannel accept(ServerSocketChannel server, long deadline, List<Process> workers,
+                                        int connected, int shards) throws IOException {
+        boolean blocking = server.isBlocking();
+        try (Selector selector = Selector.open()) {
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+            while (true) {
+                SocketChannel channel = server.accept();
+                if (channel != null) return channel;
+                for (Process p : workers) {
+                    if (!p.isAlive()) throw new IOException("Worker exited with " + p.exitValue() + " before connecting");
+                }
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    throw new IOException("Timed out waiting for workers: " + connected + " of " + shards + " connected");
+                }
+                selector.select(Math.min(remainingMs, 100));
+                selector.selectedKeys().clear();
+            }
+        } finally {
+            // Closing the selector deregistered the server, so its mode can be restored
+            server.configureBlocking(blocking);
+        }
+    }
+
+    private static void sendGo(SocketChannel channel, ByteBuffer frame, int trial) throws IOException {
+        frame.clear();
+        frame.putInt(trial);
+        write(channel, frame);
+    }
+
+    public static void work(InetSocketAddress coordinator) throws IOException {
+        try (SocketChannel channel = SocketChannel.open(coordinator)) {
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ByteBuffer frame = ByteBuffer.allocate(Math.max(PARTIAL, ASSIGN)).order(ByteOrder.LITTLE_ENDIAN);
+            frame.putLong(MAGIC).putInt(VERSION);
+            write(channel, frame);
+
+            read(channel, frame, ASSIGN);
+            int shard = frame.getInt(), shards = frame.getInt();
+            long n = frame.getLong(), seed = frame.getLong();
+            int blockSize = frame.getInt();
+            long[] range = shardRange(n, blockSize, shard, shards);
+            long start = System.nanoTime();
+            double[] data = generate(range[0], range[1], blockSize, seed);
+            frame.clear();
+            frame.putInt(shard).putLong(data.length).putLong(System.nanoTime() - start);
+            write(channel, frame);
+
+            while (true) {
+                read(channel, frame, GO);
+                int trial = frame.getInt();
+                if (trial < 0) break;
+                long t0 = System.nanoTime();
+                ShardPartial partial = ShardPartial.of(data, 0, data.length);
+                long computeNs = System.nanoTime() - t0;
+                frame.clear();
+                frame.putInt(shard).putInt(trial).putLong(computeNs);
+                partial.encode(frame);
+                write(channel, frame);
+            }
+        }
+    }
+
+    // [from, to) of the sample owned by `shard` of `shards`, on block boundaries
+    static long[] shardRange(long n, int blockSize, int shard, int shards) {
+        long blocks = (n + blockSize - 1) / blockSize;
+        long from = Math.min(n, blocks * shard / shards * blockSize);
+        long to = Math.min(n, blocks * (shard + 1) / shards * blockSize);
+        return new long[]{from, to};
+    }
+
+    // Values [from, to) of the sample, from a block boundary; blocks are filled on the common pool
+    static double[] generate(long from, long to, int blockSize, long seed) {
+        double[] data = new double[Math.toIntExact(to - from)];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (long start = from; start < to; start += blockSize) {
+            long block = start / blockSize;
+            int lo = (int) (start - from), hi = (int) (Math.min(to, start + blockSize) - from);
+            tasks.add(() -> {
+                GammaSampler.stream(seed, block).fill(data, lo, hi, 2.0, 2.0);
+                return null;
+            });
+        }
+        for (Future<Void> filled : ForkJoinPool.commonPool().invokeAll(tasks)) {
+            try {
+                filled.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Data generation failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while generating data", e);
+            }
+        }
+        return data;
+    }
+
+    private static void read(SocketChannel channel, ByteBuffer frame, int bytes) throws IOException {
+        frame.clear().limit(bytes);
+        while (frame.hasRemaining()) {
+            if (channel.read(frame) < 0) throw new EOFException("Connection closed by " + channel.getRemoteAddress());
+        }
+        frame.flip();
+    }
+
+    private static void write(SocketChannel channel, ByteBuffer frame) throws IOException {
+        frame.flip();
+        while (frame.hasRemaining()) channel.write(frame);
+    }
+}
@@ -0,0 +1,128 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ShardedRunTest {
+
+    @Test
+    public void testPartialsMergeToWholeSample() {
+        Random rand = new Random(42L);
+        double[] data = new double[10_007];
+        for (int i = 0; i < data.length; i++) data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0) + 1000;
+
+        ShardPartial merged = null;
+        int[] cuts = {0, 1, 500, 4096, 9000, data.length};
+        for (int i = 0; i + 1 < cuts.length; i++) {
+            ShardPartial shard = ShardPartial.of(data, cuts[i], cuts[i + 1]);
+            merged = merged == null ? shard : merged.merge(shard);
+        }
+        double var = VarianceKernels.optimizedUnbiasedVariance(data);
+        assertEquals(data.length, merged.count());
+        assertEquals(var, merged.unbiasedVariance(), 1e-12 * var);
+        assertEquals(VarianceKernels.optimizedBariance(data), merged.bariance(), 1e-6 * var);
+
+        ByteBuffer frame = ByteBuffer.allocate(ShardPartial.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        merged.encode(frame);
+        assertFalse(frame.hasRemaining());
+        frame.flip();
+        ShardPartial decoded = ShardPartial.decode(frame);
+        assertEquals(merged.unbiasedVariance(), decoded.unbiasedVariance());
+        assertEquals(merged.bariance(), decoded.bariance());
+    }
+
+    @Test
+    public void testShardRangesCoverTheSample() {
+        long n = 10_500;
+        int blockSize = 1000;
+        for (int shards = 1; shards <= 11; shards++) {
+            long next = 0;
+            for (int i = 0; i < shards; i++) {
+                long[] range = ShardedRun.shardRange(n, blockSize, i, shards);
+                assertEquals(next, range[0]);
+                assertEquals(0, range[0] % blockSize);
+                next = range[1];
+            }
+            assertEquals(n, next);
+        }
+        // Blocks do not depend on the shard they land in
+        double[] whole = ShardedRun.generate(0, n, blockSize, 42L);
+        double[] tail = ShardedRun.generate(3000, n, blockSize, 42L);
+        for (int i = 0; i < tail.length; i++) assertEquals(whole[3000 + i], tail[i]);
+    }
+
+    @Test
+    @Timeout(60)
+    public void testCoordinatorMergesWorkersOverSockets() throws Exception {
+        long n = 50_000;
+        int blockSize = 4096;
+        ShardPartial whole = ShardPartial.of(ShardedRun.generate(0, n, blockSize, 7L), 0, (int) n);
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            InetSocketAddress address = (InetSocketAddress) server.getLocalAddress();
+            for (int shards : new int[]{1, 3}) {
+                // One thread per worker: they block in socket reads, so a shared pool smaller than
+                // the shard count would leave some never connecting
+                ExecutorService pool = Executors.newFixedThreadPool(shards);
+                List<ShardedRun.Trial> trials;
+                try {
+                    List<Future<Void>> workers = new ArrayList<>();
+                    for (int i = 0; i < shards; i++) {
+                        workers.add(pool.submit(() -> {
+                            ShardedRun.work(address);
+                            return null;
+                        }));
+                    }
+                    trials = ShardedRun.coordinate(server, shards, n, 7L, blockSize, 2);
+                    for (Future<Void> w : workers) w.get();
+                } finally {
+                    pool.shutdownNow();
+                }
+
+                assertEquals(2, trials.size());
+                for (ShardedRun.Trial t : trials) {
+                    assertEquals(shards, t.shards);
+                    assertEquals(n, t.merged.count());
+                    assertTrue(t.wallNs >= t.maxComputeNs);
+                    assertTrue(t.maxGenerateNs > 0);
+                    assertTrue(t.totalGenerateNs >= t.maxGenerateNs);
+                    assertEquals(whole.unbiasedVariance(), t.merged.unbiasedVariance(), 1e-12 * whole.unbiasedVariance());
+                    assertEquals(whole.bariance(), t.merged.bariance(), 1e-9 * whole.bariance());
+                }
+            }
+        }
+    }
+
+    @Test
+    @Timeout(60)
+    public void testCoordinatorFailsWhenWorkersDoNotConnect() throws Exception {
+        try (ServerSocketChannel server = ServerSocketChannel.open()) {
+            server.bind(new InetSocketAddress("127.0.0.1", 0));
+            // As with a bad --worker-jvm: the worker JVM exits before it ever connects
+            String java = ProcessHandle.current().info().command().orElse("java");
+            Process dead = new ProcessBuilder(java, "-XX:+NoSuchOption")
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            IOException exited = assertThrows(IOException.class,
+                    () -> ShardedRun.coordinate(server, 2, 50_000, 7L, 4096, 1, List.of(dead), 30_000));
+            assertTrue(exited.getMessage().contains("exited"), exited.getMessage());
+
+            IOException timedOut = assertThrows(IOException.class,
+                    () -> ShardedRun.coordinate(server, 1, 50_000, 7L, 4096, 1, List.of(), 200));
+            assertTrue(timedOut.getMessage().contains("Timed out"), timedOut.getMessage());
+            assertTrue(server.isBlocking());
+        }
+    }
+}
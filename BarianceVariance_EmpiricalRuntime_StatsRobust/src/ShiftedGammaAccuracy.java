@@ -0,0 +1,75 @@
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Accuracy vs. runtime of the bariance accuracy modes on Gamma(2, 2) + offset. Large offsets
+// keep the spread and move the mean, which is exactly what breaks the plain sum/sumSq form.
+// RelError is measured against an exact BigDecimal evaluation; RuntimeNs is the median trial.
+public class ShiftedGammaAccuracy {
+
+    static int[] sampleSizes = {1000, 10000, 100000, 1000000};
+    static double[] offsets = {0, 1e2, 1e4, 1e6, 1e8};
+    static int trials = 50;
+    static long seed = 42L;
+    static volatile double blackhole; // keeps the JIT from dropping unused estimator results
+
+    public static void main(String[] args) throws IOException {
+        // All estimators on the bariance scale (2 * variance); FastPairwise is the two-pass reference
+        List<VarianceEstimator> estimators = VarianceEstimators.fromArgs(args, "BarianceOpt", "AltBariance",
+                "BarianceNeumaier", "BariancePairwiseSum", "BarianceShifted", "FastPairwise");
+        String output = "./bariance_accuracy_shifted_gamma.csv";
+        long[] ns = new long[trials];
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(output))) {
+            writer.write("SampleSize,Offset,Estimator,RelError,RuntimeNs\n");
+            for (int n : sampleSizes) {
+                double[] gamma = new double[n];
+                Random rand = new Random(seed);
+                for (int i = 0; i < n; i++) {
+                    gamma[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+                }
+                double[] data = new double[n];
+                for (double offset : offsets) {
+                    for (int i = 0; i < n; i++) data[i] = gamma[i] + offset;
+                    double exact = exactBariance(data);
+                    System.out.println("n=" + n + ", offset=" + offset + ": exact bariance " + exact);
+
+                    for (VarianceEstimator estimator : estimators) {
+                        double result = 0;
+                        for (int t = 0; t < trials; t++) {
+                            long start = System.nanoTime();
+                            result = estimator.estimate(data);
+                            ns[t] = System.nanoTime() - start;
+                            blackhole = result;
+                        }
+                        Arrays.sort(ns);
+                        double relError = Math.abs(result - exact) / exact;
+                        writer.write(n + "," + offset + "," + estimator.name() + "," + relError + "," + ns[trials / 2] + "\n");
+                        System.out.printf("  %-20s rel.error %.3e  median %d ns%n", estimator.name(), relError, ns[trials / 2]);
+                    }
+                }
+            }
+        }
+
+        System.out.println("Benchmark complete. Data written to " + output);
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+
+    // 2 * (n * sumSq - sum^2) / (n * (n - 1)) with sum and sumSq accumulated exactly
+    static double exactBariance(double[] x) {
+        BigDecimal sum = BigDecimal.ZERO, sumSq = BigDecimal.ZERO;
+        for (double v : x) {
+            BigDecimal b = new BigDecimal(v);
+            sum = sum.add(b);
+            sumSq = sumSq.add(b.multiply(b));
+        }
+        BigDecimal n = BigDecimal.valueOf(x.length);
+        BigDecimal numerator = n.multiply(sumSq).subtract(sum.multiply(sum)).multiply(BigDecimal.valueOf(2));
+        return numerator.divide(n.multiply(n.subtract(BigDecimal.ONE)), MathContext.DECIMAL128).doubleValue();
+    }
+}
@@ -0,0 +1,107 @@
+// Bariance over the last `window` values of a series with O(1) add and evict. Keeps sum and sumSq
+// of (v - anchor) over a ring buffer with Neumaier-compensated updates, so evicting a value takes
+// out what adding it put in even after a level shift. Every `window` updates the sums are rebuilt
+// around the current mean (O(window) work per `window` updates, amortized O(1)).
+public final class SlidingBariance {
+
+    final double[] ring;
+    int head, count;      // oldest value at ring[head]
+    double anchor, sum, sumSq;
+    double sumComp, sumSqComp; // Neumaier compensation terms
+    int sinceRebuild;
+
+    public SlidingBariance(int window) {
+        if (window < 2) throw new IllegalArgumentException("window must be at least 2: " + window);
+        ring = new double[window];
+    }
+
+    // Appends v, evicting the oldest value once the window is full
+    public void add(double v) {
+        if (count == ring.length) evict();
+        if (count == 0) anchor = v;
+        ring[(head + count) % ring.length] = v;
+        count++;
+        accumulate(v - anchor, 1.0);
+        if (++sinceRebuild >= ring.length) rebuild();
+    }
+
+    public void evict() {
+        if (count == 0) throw new IllegalStateException("window is empty");
+        accumulate(ring[head] - anchor, -1.0);
+        head = (head + 1) % ring.length;
+        count--;
+        if (++sinceRebuild >= ring.length) rebuild();
+    }
+
+    // sum += sign * d and sumSq += sign * d^2, with the rounding errors (and the fma-exact error of
+    // the square) collected in the compensation terms
+    private void accumulate(double d, double sign) {
+        double a = sign * d;
+        double t = sum + a;
+        sumComp += Math.abs(sum) >= Math.abs(a) ? (sum - t) + a : (a - t) + sum;
+        sum = t;
+        double p = d * d;
+        double b = sign * p;
+        double u = sumSq + b;
+        sumSqComp += (Math.abs(sumSq) >= Math.abs(b) ? (sumSq - u) + b : (b - u) + sumSq) + sign * Math.fma(d, d, -p);
+        sumSq = u;
+    }
+
+    // Re-anchors at the current mean and re-sums the window; the rebuild itself is compensated,
+    // since values from both sides of a level shift may still be in the window
+    void rebuild() {
+        sinceRebuild = 0;
+        if (count == 0) {
+            sum = sumSq = sumComp = sumSqComp = 0.0;
+            return;
+        }
+        anchor += (sum + sumComp) / count;
+        sum = sumSq = sumComp = sumSqComp = 0.0;
+        for (int k = 0, i = head; k < count; k++) {
+            accumulate(ring[i] - anchor, 1.0);
+            if (++i == ring.length) i = 0;
+        }
+    }
+
+    public void reset() {
+        head = count = sinceRebuild = 0;
+        anchor = sum = sumSq = sumComp = sumSqComp = 0.0;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int window() {
+        return ring.length;
+    }
+
+    public boolean isFull() {
+        return count == ring.length;
+    }
+
+    public double mean() {
+        return anchor + (sum + sumComp) / count;
+    }
+
+    public double variance() {
+        return bariance() / 2;
+    }
+
+    // Until the next rebuild the anchor may sit far from a shifted level, so n * sumSq - sum^2 is
+    // formed from the (value, compensation) pairs as in CompensatedBariance
+    public double bariance() {
+        return CompensatedBariance.combine(count, sum, sumComp, sumSq, sumSqComp);
+    }
+
+    // out[i] = bariance of x[i .. i + window) for every full window; returns the number written
+    public static int rolling(double[] x, int window, double[] out) {
+        SlidingBariance w = new SlidingBariance(window);
+        int written = 0;
+        for (int i = 0; i < x.length; i++) {
+            w.add(x[i]);
+            if (w.isFull()) out[written++] = w.bariance();
+        }
+        return written;
+    }
+}
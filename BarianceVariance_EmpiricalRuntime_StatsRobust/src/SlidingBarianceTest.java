@@ -0,0 +1,44 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class SlidingBarianceTest {
+
+    @Test
+    public void testRollingMatchesRecomputation() {
+        Random rand = new Random(42L);
+        int n = 20000, window = 300;
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            // Level shift halfway through: the anchor has to follow the data
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0) + (i < n / 2 ? 0 : 1e6);
+        }
+
+        double[] rolling = new double[n - window + 1];
+        assertEquals(rolling.length, SlidingBariance.rolling(data, window, rolling));
+        for (int i = 0; i < rolling.length; i++) {
+            double expected = 2 * VarianceKernels.unbiasedVariance(data, i, i + window);
+            assertEquals(expected, rolling[i], 1e-9 * expected, "window starting at " + i);
+        }
+    }
+
+    @Test
+    public void testAddAndEvict() {
+        double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        SlidingBariance w = new SlidingBariance(testData.length);
+        w.add(100.0);
+        w.evict();
+        for (double v : testData) w.add(v);
+
+        assertTrue(w.isFull());
+        assertEquals(5.0, w.mean(), 1e-12);
+        assertEquals(VarianceKernels.unbiasedVariance(testData), w.variance(), 1e-12);
+        assertEquals(2 * VarianceKernels.unbiasedVariance(testData), w.bariance(), 1e-12);
+
+        w.add(5.0); // evicts the first 2.0
+        assertEquals(VarianceKernels.unbiasedVariance(new double[]{4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0, 5.0}),
+                w.variance(), 1e-12);
+        assertThrows(IllegalStateException.class, () -> new SlidingBariance(2).evict());
+    }
+}
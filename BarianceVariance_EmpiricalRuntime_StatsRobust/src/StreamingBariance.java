@@ -0,0 +1,76 @@
+import java.nio.DoubleBuffer;
+
+// Online accumulator for data that never exists as one array. Keeps the Welford state of
+// optimizedUnbiasedVariance and the sum/sumSq of optimizedBariance side by side; all
+// updates, including merge, are in place and allocation-free.
+public final class StreamingBariance {
+
+    long count;
+    double mean, m2;
+    double sum, sumSq;
+
+    public void add(double v) {
+        count++;
+        double delta = v - mean;
+        mean += delta / count;
+        m2 += delta * (v - mean);
+        sum += v;
+        sumSq += v * v;
+    }
+
+    public void addAll(double[] x, int from, int to) {
+        for (int i = from; i < to; i++) {
+            add(x[i]);
+        }
+    }
+
+    // Absolute reads from position to limit; the buffer's position is not moved
+    public void addAll(DoubleBuffer buf) {
+        for (int i = buf.position(), end = buf.limit(); i < end; i++) {
+            add(buf.get(i));
+        }
+    }
+
+    // Chan et al. pairwise merge; `other` is left untouched
+    public void merge(StreamingBariance other) {
+        if (other.count == 0) return;
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / n;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / n);
+        count = n;
+        sum += other.sum;
+        sumSq += other.sumSq;
+    }
+
+    public void reset() {
+        count = 0;
+        mean = m2 = sum = sumSq = 0.0;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double mean() {
+        return mean;
+    }
+
+    public double variance() {
+        return m2 / (count - 1);
+    }
+
+    public double biasedVariance() {
+        return m2 / count;
+    }
+
+    public double bariance() {
+        long n = count;
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public double altBariance() {
+        long n = count;
+        return (sumSq - (sum * sum) / n) * 2 / (n - 1);
+    }
+}
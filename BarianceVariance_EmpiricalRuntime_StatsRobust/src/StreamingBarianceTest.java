@@ -0,0 +1,44 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class StreamingBarianceTest {
+
+    @Test
+    public void testStreamMatchesArrayEstimators() {
+        double[] testData = {2.0, 4.0, 4.0, 4.0, 5.0, 5.0, 7.0, 9.0};
+        StreamingBariance acc = new StreamingBariance();
+        for (double v : testData) acc.add(v);
+
+        assertEquals(testData.length, acc.count());
+        assertEquals(VarianceKernels.optimizedUnbiasedVariance(testData), acc.variance(), 1e-12);
+        assertEquals(VarianceKernels.optimizedBariance(testData), acc.bariance(), 1e-12);
+        assertEquals(VarianceKernels.altBariance(testData), acc.altBariance(), 1e-12);
+        assertEquals(4.0, acc.biasedVariance(), 1e-12);
+    }
+
+    @Test
+    public void testMergedBlocksMatchSinglePass() {
+        Random rand = new Random(42L);
+        int n = 10000;
+        double[] data = new double[n];
+        for (int i = 0; i < n; i++) {
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+        }
+
+        StreamingBariance whole = new StreamingBariance();
+        whole.addAll(data, 0, n);
+        StreamingBariance left = new StreamingBariance();
+        left.addAll(data, 0, 3001);
+        StreamingBariance right = new StreamingBariance();
+        right.addAll(data, 3001, n);
+        left.merge(right);
+        left.merge(new StreamingBariance());
+
+        assertEquals(whole.count(), left.count());
+        assertEquals(whole.variance(), left.variance(), 1e-12 * whole.variance());
+        assertEquals(whole.bariance(), left.bariance(), 1e-12 * whole.bariance());
+        assertEquals(2 * whole.variance(), whole.bariance(), 1e-11 * whole.variance());
+    }
+}
@@ -0,0 +1,38 @@
+// Variance and bariance of a Gamma stream that is never materialized: draws go through one
+// reusable block and into a StreamingBariance, so n is bounded by time, not by the heap.
+public class StreamingGammaDistSeeded {
+
+    static long[] streamLengths = {1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L};
+    static int blockSize = 8192;
+    static long seed = 42L;
+
+    public static void main(String[] args) {
+        long[] lengths = args.length > 0 ? new long[]{Long.parseLong(args[0])} : streamLengths;
+        double[] block = new double[blockSize];
+        StreamingBariance acc = new StreamingBariance();
+
+        for (long n : lengths) {
+            GammaSampler sampler = new GammaSampler(seed);
+            acc.reset();
+            long generationNs = 0, accumulateNs = 0;
+
+            for (long done = 0; done < n; done += blockSize) {
+                int len = (int) Math.min(blockSize, n - done);
+                long start = System.nanoTime();
+                sampler.fill(block, 0, len, 2.0, 2.0);
+                long mid = System.nanoTime();
+                acc.addAll(block, 0, len);
+                long end = System.nanoTime();
+                generationNs += mid - start;
+                accumulateNs += end - mid;
+            }
+
+            System.out.println("n=" + n + ": variance=" + acc.variance() + ", bariance=" + acc.bariance()
+                    + ", bariance/2-variance=" + (acc.bariance() / 2 - acc.variance()));
+            System.out.println("  generation " + generationNs / 1_000_000 + " ms, accumulation "
+                    + accumulateNs / 1_000_000 + " ms (" + (double) accumulateNs / n + " ns/element)");
+        }
+
+        MainGammaDistSeeded.reportSystemInfo();
+    }
+}
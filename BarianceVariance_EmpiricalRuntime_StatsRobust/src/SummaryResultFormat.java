@@ -0,0 +1,38 @@
+import java.io.IOException;
+
+// Feeds every batch into a RuntimeAnalysis on the sink's flusher thread and writes the summary
+// on close. With a delegate the raw rows are still written; without one they are never stored.
+public final class SummaryResultFormat implements ResultSink.Format {
+
+    final String prefix;
+    final ResultSink.Format delegate;
+    RuntimeAnalysis analysis;
+
+    public SummaryResultFormat(String prefix, ResultSink.Format delegate) {
+        this.prefix = prefix;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void header(String[] estimators, String valueColumn) throws IOException {
+        analysis = new RuntimeAnalysis(valueColumn, estimators);
+        if (delegate != null) delegate.header(estimators, valueColumn);
+    }
+
+    @Override
+    public void write(ResultSink.Batch batch) throws IOException {
+        for (int i = 0; i < batch.size; i++) {
+            analysis.add(batch.sampleSize[i], batch.estimator[i], batch.value[i]);
+        }
+        if (delegate != null) delegate.write(batch);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (analysis != null) analysis.write(prefix);
+        } finally {
+            if (delegate != null) delegate.close();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Runs (sampleSize, trial) pairs with data generated ahead on a worker pool while the calling
+// thread does nothing but the timed estimator calls. Each trial draws from its own stream
+// GammaSampler.stream(seed, (n << 32) | t), and bodies run strictly in (n, t) order, so the data
+// every estimator sees and the row order do not depend on the number of generator threads.
+// Sample buffers are recycled once a body returns, so steady state allocates no sample arrays.
+// Java cannot pin threads; run under `taskset` to keep the timing thread on an isolated core.
+public final class TrialScheduler implements AutoCloseable {
+
+    public interface TrialBody {
+        void run(int n, int t, double[] data) throws Exception;
+    }
+
+    final long seed;
+    final int lookahead;
+    final ExecutorService generators;
+
+    public TrialScheduler(long seed, int generatorThreads) {
+        this.seed = seed;
+        this.lookahead = 2 * generatorThreads;
+        this.generators = Executors.newFixedThreadPool(generatorThreads, r -> {
+            Thread thread = new Thread(r, "trial-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static int defaultGeneratorThreads() {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    }
+
+    public static long trialIndex(int n, int t) {
+        return ((long) n << 32) | t;
+    }
+
+    public void run(int[] sampleSizes, int trials, double shape, double scale, TrialBody body) throws Exception {
+        int total = sampleSizes.length * trials;
+        ArrayDeque<Future<double[]>> pending = new ArrayDeque<>();
+        ArrayDeque<double[]> free = new ArrayDeque<>();
+        int submitted = 0;
+
+        for (int k = 0; k < total; k++) {
+            while (submitted < total && submitted < k + lookahead) {
+                int n = sampleSizes[submitted / trials], t = submitted % trials;
+                double[] buffer = reuse(free, n);
+                pending.add(generators.submit(() -> {
+                    stream(n, t).fill(buffer, shape, scale);
+                    return buffer;
+                }));
+                submitted++;
+            }
+
+            double[] data;
+            try {
+                data = pending.poll().get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Data generation failed", e.getCause());
+            }
+            body.run(sampleSizes[k / trials], k % trials, data);
+            free.push(data);
+        }
+    }
+
+    // Buffers of other sizes are dropped once the schedule moves past their sample size
+    static double[] reuse(ArrayDeque<double[]> free, int n) {
+        while (!free.isEmpty()) {
+            double[] buffer = free.pop();
+            if (buffer.length == n) return buffer;
+        }
+        return new double[n];
+    }
+
+    GammaSampler stream(int n, int t) {
+        return GammaSampler.stream(seed, trialIndex(n, t));
+    }
+
+    @Override
+    public void close() {
+        generators.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TrialSchedulerTest {
+
+    @Test
+    public void testOrderAndDataIndependentOfThreadCount() throws Exception {
+        int[] sampleSizes = {100, 1000, 5000};
+        List<String> single = record(sampleSizes, 1);
+        List<String> many = record(sampleSizes, 4);
+
+        assertEquals(sampleSizes.length * 7, single.size());
+        assertEquals("100,0", single.get(0).substring(0, 5));
+        assertEquals(single, many);
+    }
+
+    // One line per trial: n, t and the exact bariance of the generated data
+    static List<String> record(int[] sampleSizes, int threads) throws Exception {
+        List<String> rows = new ArrayList<>();
+        try (TrialScheduler scheduler = new TrialScheduler(42L, threads)) {
+            scheduler.run(sampleSizes, 7, 2.0, 2.0, (n, t, data) ->
+                    rows.add(n + "," + t + "," + Double.doubleToLongBits(VarianceKernels.optimizedBariance(data))));
+        }
+        return rows;
+    }
+}
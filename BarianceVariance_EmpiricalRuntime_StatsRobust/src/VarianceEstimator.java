@@ -0,0 +1,32 @@
+import java.nio.DoubleBuffer;
+import java.util.function.ToDoubleFunction;
+
+// One estimator as the drivers see it. Ranges are [from, to); buffers are read with absolute
+// gets from position to limit, so heap, direct and mapped buffers all work unchanged.
+public interface VarianceEstimator extends ToDoubleFunction<double[]> {
+
+    String name();
+
+    double estimate(double[] x, int from, int to);
+
+    double estimate(DoubleBuffer x);
+
+    // The M2 form FusedVariance derives this estimator from, or null when it has none
+    default FusedVariance.Form form() {
+        return null;
+    }
+
+    // Estimators built on order statistics (RobustDispersion) have no fused form by nature
+    default boolean orderStatistic() {
+        return false;
+    }
+
+    default double estimate(double[] x) {
+        return estimate(x, 0, x.length);
+    }
+
+    @Override
+    default double applyAsDouble(double[] x) {
+        return estimate(x);
+    }
+}
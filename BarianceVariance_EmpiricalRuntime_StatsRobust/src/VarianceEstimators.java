@@ -0,0 +1,189 @@
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+// Registry of every estimator the drivers time, keyed by the name written to the Estimator
+// column. Drivers pick from it with --estimators=A,B,...; kernels without a buffer path of
+// their own (Vector API, tiled pairwise, fork-join) fall back to the equivalent scalar formula.
+public final class VarianceEstimators {
+
+    @FunctionalInterface
+    public interface RangeKernel {
+        double estimate(double[] x, int from, int to);
+    }
+
+    @FunctionalInterface
+    public interface BufferKernel {
+        double estimate(DoubleBuffer x);
+    }
+
+    private static final Map<String, VarianceEstimator> REGISTRY = new LinkedHashMap<>();
+
+    // The M2 form each moment estimator reduces to, for FusedVariance
+    private static final FusedVariance.Form UNBIASED = FusedVariance.Form.UNBIASED, BIASED = FusedVariance.Form.BIASED,
+            BARIANCE = FusedVariance.Form.BARIANCE, BIASED_BARIANCE = FusedVariance.Form.BIASED_BARIANCE;
+
+    static {
+        // Two-pass and sum/sumSq estimators (MainGammaDistSeeded, GammaDistSeededBigEight)
+        register(of("Unbiased", VarianceKernels::unbiasedVariance, VarianceKernels::unbiasedVariance, UNBIASED));
+        register(of("Biased", VarianceKernels::biasedVariance, VarianceKernels::biasedVariance, BIASED));
+        register(of("PopulationVar", VarianceKernels::biasedVariance, VarianceKernels::biasedVariance, BIASED));
+        register(of("BarianceOpt", VarianceKernels::optimizedBariance, VarianceKernels::optimizedBariance, BARIANCE));
+        register(of("AltBariance", VarianceKernels::altBariance, VarianceKernels::altBariance, BARIANCE));
+        register(of("NaivePairwise", VarianceKernels::naivePairwiseVariance, VarianceKernels::naivePairwiseVariance, BARIANCE));
+        register(of("UnbiasedPairwise", VarianceKernels::naivePairwiseVariance, VarianceKernels::naivePairwiseVariance, BARIANCE));
+        register(of("BiasedPairwise", VarianceKernels::biasedPairwise, VarianceKernels::biasedPairwise, BIASED_BARIANCE));
+
+        // Welford estimators and the names FairGammaDistSeededBenchmark records
+        register(of("UnbiasedOptim", VarianceKernels::optimizedUnbiasedVariance, VarianceKernels::optimizedUnbiasedVariance, UNBIASED));
+        register(of("BiasedOptim", VarianceKernels::optimizedBiasedVariance, VarianceKernels::optimizedBiasedVariance, BIASED));
+        register(of("PopulationOptim", VarianceKernels::optimizedBiasedVariance, VarianceKernels::optimizedBiasedVariance, BIASED));
+        register(of("BarianceOptim", VarianceKernels::optimizedBariance, VarianceKernels::optimizedBariance, BARIANCE));
+        register(of("AltBarianceOptim", VarianceKernels::altBariance, VarianceKernels::altBariance, BARIANCE));
+
+        // Accuracy modes of the sum/sumSq bariance (CompensatedBariance)
+        register(of("BarianceNeumaier", CompensatedBariance::neumaierBariance, CompensatedBariance::neumaierBariance, BARIANCE));
+        register(of("BariancePairwiseSum", CompensatedBariance::pairwiseSumBariance, CompensatedBariance::pairwiseSumBariance, BARIANCE));
+        register(of("BarianceShifted", CompensatedBariance::shiftedBariance, CompensatedBariance::shiftedBariance, BARIANCE));
+
+        register(of("FastPairwise", PairwiseVariance::fastPairwiseVariance,
+                x -> 2 * VarianceKernels.unbiasedVariance(x), BARIANCE));
+        register(of("BlockedPairwise", PairwiseVariance::blockedPairwiseVariance, VarianceKernels::naivePairwiseVariance, BARIANCE));
+        register(of("ParallelPairwise", (x, from, to) -> PairwiseVariance.parallelPairwiseVariance(ForkJoinPool.commonPool(), x, from, to),
+                VarianceKernels::naivePairwiseVariance, BARIANCE));
+
+        // VectorVariance only links when the JVM runs with --add-modules jdk.incubator.vector
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            register(of("UnbiasedSimd", VectorVariance::vectorUnbiasedVariance, VarianceKernels::unbiasedVariance, UNBIASED));
+            register(of("BarianceSimd", VectorVariance::vectorBariance, VarianceKernels::optimizedBariance, BARIANCE));
+            register(of("AltBarianceSimd", VectorVariance::vectorAltBariance, VarianceKernels::altBariance, BARIANCE));
+        }
+
+        register(of("UnbiasedParallel", (x, from, to) -> ParallelVariance.parallelUnbiasedVariance(ForkJoinPool.commonPool(),
+                x, from, to, ParallelVariance.DEFAULT_THRESHOLD), VarianceKernels::optimizedUnbiasedVariance, UNBIASED));
+        register(of("BarianceParallel", (x, from, to) -> ParallelVariance.parallelBariance(ForkJoinPool.commonPool(),
+                x, from, to, ParallelVariance.DEFAULT_THRESHOLD), VarianceKernels::optimizedBariance, BARIANCE));
+
+        // Order-statistic dispersion rescaled to a variance (RobustDispersion); IqrSorted is the sort-based baseline
+        register(orderStatistic("MadVariance", RobustDispersion::madVariance, RobustDispersion::madVariance));
+        register(orderStatistic("IqrVariance", RobustDispersion::iqrVariance, RobustDispersion::iqrVariance));
+        register(orderStatistic("IqrSorted", RobustDispersion::sortedIqrVariance, RobustDispersion::iqrVariance));
+        register(orderStatistic("TrimmedVariance", RobustDispersion::trimmedVariance, RobustDispersion::trimmedVariance));
+        register(orderStatistic("WinsorizedVariance", RobustDispersion::winsorizedVariance, RobustDispersion::winsorizedVariance));
+        register(orderStatistic("MadParallel", (x, from, to) -> RobustDispersion.parallelMadVariance(ForkJoinPool.commonPool(),
+                x, from, to, Selection.DEFAULT_THRESHOLD), RobustDispersion::madVariance));
+        register(orderStatistic("IqrParallel", (x, from, to) -> RobustDispersion.parallelIqrVariance(ForkJoinPool.commonPool(),
+                x, from, to, Selection.DEFAULT_THRESHOLD), RobustDispersion::iqrVariance));
+        register(orderStatistic("TrimmedParallel", (x, from, to) -> RobustDispersion.parallelTrimmedVariance(ForkJoinPool.commonPool(),
+                x, from, to, RobustDispersion.DEFAULT_TRIM, Selection.DEFAULT_THRESHOLD), RobustDispersion::trimmedVariance));
+        register(orderStatistic("WinsorizedParallel", (x, from, to) -> RobustDispersion.parallelWinsorizedVariance(ForkJoinPool.commonPool(),
+                x, from, to, RobustDispersion.DEFAULT_TRIM, Selection.DEFAULT_THRESHOLD), RobustDispersion::winsorizedVariance));
+    }
+
+    private VarianceEstimators() {
+    }
+
+    // An estimator without a fused form, e.g. one registered from outside for a single run
+    public static VarianceEstimator of(String name, RangeKernel range, BufferKernel buffer) {
+        return new Kernel(name, range, buffer, null, false);
+    }
+
+    // A moment estimator: FusedVariance derives it from M2 through form
+    public static VarianceEstimator of(String name, RangeKernel range, BufferKernel buffer, FusedVariance.Form form) {
+        return new Kernel(name, range, buffer, form, false);
+    }
+
+    // An estimator built on order statistics, which has no fused form
+    public static VarianceEstimator orderStatistic(String name, RangeKernel range, BufferKernel buffer) {
+        return new Kernel(name, range, buffer, null, true);
+    }
+
+    public static synchronized void register(VarianceEstimator estimator) {
+        if (REGISTRY.putIfAbsent(estimator.name(), estimator) != null) {
+            throw new IllegalArgumentException("Estimator already registered: " + estimator.name());
+        }
+    }
+
+    public static synchronized VarianceEstimator get(String name) {
+        VarianceEstimator estimator = REGISTRY.get(name);
+        if (estimator == null) {
+            throw new IllegalArgumentException("Unknown estimator: " + name + " (known: " + String.join(", ", REGISTRY.keySet()) + ")");
+        }
+        return estimator;
+    }
+
+    public static synchronized List<String> names() {
+        return List.copyOf(REGISTRY.keySet());
+    }
+
+    public static List<VarianceEstimator> get(String... names) {
+        List<VarianceEstimator> estimators = new ArrayList<>(names.length);
+        for (String name : names) estimators.add(get(name));
+        return estimators;
+    }
+
+    // --estimators=A,B,... from the command line, otherwise the driver's own defaults
+    public static List<VarianceEstimator> fromArgs(String[] args, String... defaults) {
+        for (String arg : args) {
+            if (arg.startsWith("--estimators=")) {
+                return get(arg.substring("--estimators=".length()).split(","));
+            }
+        }
+        return get(defaults);
+    }
+
+    public static String[] names(List<VarianceEstimator> estimators) {
+        String[] names = new String[estimators.size()];
+        for (int i = 0; i < names.length; i++) names[i] = estimators.get(i).name();
+        return names;
+    }
+
+    private static final class Kernel implements VarianceEstimator {
+        private final String name;
+        private final RangeKernel range;
+        private final BufferKernel buffer;
+        private final FusedVariance.Form form;
+        private final boolean orderStatistic;
+
+        Kernel(String name, RangeKernel range, BufferKernel buffer, FusedVariance.Form form, boolean orderStatistic) {
+            this.name = name;
+            this.range = range;
+            this.buffer = buffer;
+            this.form = form;
+            this.orderStatistic = orderStatistic;
+        }
+
+        @Override
+        public String name() {
+            return name;
+        }
+
+        @Override
+        public double estimate(double[] x, int from, int to) {
+            return range.estimate(x, from, to);
+        }
+
+        @Override
+        public double estimate(DoubleBuffer x) {
+            return buffer.estimate(x);
+        }
+
+        @Override
+        public FusedVariance.Form form() {
+            return form;
+        }
+
+        @Override
+        public boolean orderStatistic() {
+            return orderStatistic;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
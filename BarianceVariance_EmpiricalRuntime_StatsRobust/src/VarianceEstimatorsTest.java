@@ -0,0 +1,46 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.List;
+import java.util.Random;
+
+public class VarianceEstimatorsTest {
+
+    @Test
+    public void testArrayRangeAndBufferEntryPointsAgree() {
+        Random rand = new Random(42L);
+        int n = 2000, offset = 37;
+        double[] data = new double[n];
+        double[] padded = new double[n + 2 * offset];
+        DoubleBuffer direct = ByteBuffer.allocateDirect(8 * (n + offset)).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        for (int i = 0; i < n; i++) {
+            data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+            padded[offset + i] = data[i];
+            direct.put(offset + i, data[i]);
+        }
+        direct.position(offset);
+
+        double var = VarianceKernels.unbiasedVariance(data);
+        for (String name : VarianceEstimators.names()) {
+            VarianceEstimator estimator = VarianceEstimators.get(name);
+            double expected = estimator.estimate(data);
+            assertEquals(expected, estimator.estimate(padded, offset, offset + n), 1e-9 * var, name + " range");
+            assertEquals(expected, estimator.estimate(direct), 1e-9 * var, name + " buffer");
+            assertEquals(offset, direct.position(), name + " moved the buffer position");
+        }
+        assertEquals(2 * var, VarianceEstimators.get("BarianceSimd").estimate(data), 1e-9 * var);
+        assertEquals(2 * var, VarianceEstimators.get("FastPairwise").estimate(data), 1e-9 * var);
+    }
+
+    @Test
+    public void testSelectionFromArgs() {
+        List<VarianceEstimator> selected = VarianceEstimators.fromArgs(
+                new String[]{"--offheap", "--estimators=AltBariance,UnbiasedOptim"}, "Unbiased");
+        assertArrayEquals(new String[]{"AltBariance", "UnbiasedOptim"}, VarianceEstimators.names(selected));
+        assertArrayEquals(new String[]{"Unbiased"}, VarianceEstimators.names(VarianceEstimators.fromArgs(new String[0], "Unbiased")));
+        assertThrows(IllegalArgumentException.class, () -> VarianceEstimators.get("NoSuchEstimator"));
+    }
+}
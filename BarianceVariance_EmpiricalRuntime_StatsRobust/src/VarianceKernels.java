@@ -0,0 +1,205 @@
+import java.nio.DoubleBuffer;
+
+// The scalar estimators the drivers used to carry as private copies, each with an array, a
+// range [from, to) and a DoubleBuffer (position..limit, absolute reads) entry point.
+public class VarianceKernels {
+
+    // Two-pass: mean first, then the centered sum of squares
+
+    public static double unbiasedVariance(double[] x) {
+        return unbiasedVariance(x, 0, x.length);
+    }
+
+    public static double unbiasedVariance(double[] x, int from, int to) {
+        return centeredSumSq(x, from, to) / (to - from - 1);
+    }
+
+    public static double unbiasedVariance(DoubleBuffer x) {
+        return centeredSumSq(x) / (x.remaining() - 1);
+    }
+
+    public static double biasedVariance(double[] x) {
+        return biasedVariance(x, 0, x.length);
+    }
+
+    public static double biasedVariance(double[] x, int from, int to) {
+        return centeredSumSq(x, from, to) / (to - from);
+    }
+
+    public static double biasedVariance(DoubleBuffer x) {
+        return centeredSumSq(x) / x.remaining();
+    }
+
+    static double centeredSumSq(double[] x, int from, int to) {
+        int n = to - from;
+        double mean = 0;
+        for (int i = from; i < to; i++) mean += x[i];
+        mean /= n;
+
+        double sumSq = 0;
+        for (int i = from; i < to; i++) sumSq += (x[i] - mean) * (x[i] - mean);
+        return sumSq;
+    }
+
+    static double centeredSumSq(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        int n = to - from;
+        double mean = 0;
+        for (int i = from; i < to; i++) mean += x.get(i);
+        mean /= n;
+
+        double sumSq = 0;
+        for (int i = from; i < to; i++) sumSq += (x.get(i) - mean) * (x.get(i) - mean);
+        return sumSq;
+    }
+
+    // Welford: one pass, running mean and M2
+
+    public static double optimizedUnbiasedVariance(double[] x) {
+        return optimizedUnbiasedVariance(x, 0, x.length);
+    }
+
+    public static double optimizedUnbiasedVariance(double[] x, int from, int to) {
+        return welfordM2(x, from, to) / (to - from - 1);
+    }
+
+    public static double optimizedUnbiasedVariance(DoubleBuffer x) {
+        return welfordM2(x) / (x.remaining() - 1);
+    }
+
+    public static double optimizedBiasedVariance(double[] x) {
+        return optimizedBiasedVariance(x, 0, x.length);
+    }
+
+    public static double optimizedBiasedVariance(double[] x, int from, int to) {
+        return welfordM2(x, from, to) / (to - from);
+    }
+
+    public static double optimizedBiasedVariance(DoubleBuffer x) {
+        return welfordM2(x) / x.remaining();
+    }
+
+    static double welfordM2(double[] x, int from, int to) {
+        double mean = 0.0, m2 = 0.0;
+        for (int i = from; i < to; i++) {
+            double delta = x[i] - mean;
+            mean += delta / (i - from + 1);
+            m2 += delta * (x[i] - mean);
+        }
+        return m2;
+    }
+
+    static double welfordM2(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        double mean = 0.0, m2 = 0.0;
+        for (int i = from; i < to; i++) {
+            double v = x.get(i);
+            double delta = v - mean;
+            mean += delta / (i - from + 1);
+            m2 += delta * (v - mean);
+        }
+        return m2;
+    }
+
+    // Bariance: one pass over sum and sumSq
+
+    public static double optimizedBariance(double[] x) {
+        return optimizedBariance(x, 0, x.length);
+    }
+
+    public static double optimizedBariance(double[] x, int from, int to) {
+        int n = to - from;
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x[i];
+            sum += v;
+            sumSq += v * v;
+        }
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public static double optimizedBariance(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        int n = to - from;
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x.get(i);
+            sum += v;
+            sumSq += v * v;
+        }
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public static double altBariance(double[] x) {
+        return altBariance(x, 0, x.length);
+    }
+
+    public static double altBariance(double[] x, int from, int to) {
+        int n = to - from;
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x[i];
+            sum += v;
+            sumSq += v * v;
+        }
+        return (sumSq - (sum * sum) / n) * 2 / (n - 1);
+    }
+
+    public static double altBariance(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        int n = to - from;
+        double sum = 0, sumSq = 0;
+        for (int i = from; i < to; i++) {
+            double v = x.get(i);
+            sum += v;
+            sumSq += v * v;
+        }
+        return (sumSq - (sum * sum) / n) * 2 / (n - 1);
+    }
+
+    // Literal O(n^2) pairwise definition
+
+    public static double naivePairwiseVariance(double[] x) {
+        return naivePairwiseVariance(x, 0, x.length);
+    }
+
+    public static double naivePairwiseVariance(double[] x, int from, int to) {
+        int n = to - from;
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            for (int j = i + 1; j < to; j++) {
+                double diff = x[i] - x[j];
+                sum += diff * diff;
+            }
+        }
+        return sum * 2 / (n * (n - 1.0));
+    }
+
+    public static double naivePairwiseVariance(DoubleBuffer x) {
+        int from = x.position(), to = x.limit();
+        int n = to - from;
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            double xi = x.get(i);
+            for (int j = i + 1; j < to; j++) {
+                double diff = xi - x.get(j);
+                sum += diff * diff;
+            }
+        }
+        return sum * 2 / (n * (n - 1.0));
+    }
+
+    public static double biasedPairwise(double[] x) {
+        return biasedPairwise(x, 0, x.length);
+    }
+
+    public static double biasedPairwise(double[] x, int from, int to) {
+        int n = to - from;
+        return naivePairwiseVariance(x, from, to) * ((double) (n - 1) / n);
+    }
+
+    public static double biasedPairwise(DoubleBuffer x) {
+        int n = x.remaining();
+        return naivePairwiseVariance(x) * ((double) (n - 1) / n);
+    }
+}
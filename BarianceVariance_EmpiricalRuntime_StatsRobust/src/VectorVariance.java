@@ -0,0 +1,136 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Vector API versions of the scalar estimators (requires --add-modules jdk.incubator.vector).
+// Two independent vector accumulators per sum hide the FP add latency; the tail runs scalar.
+public class VectorVariance {
+
+    static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    public static double vectorBariance(double[] x) {
+        return vectorBariance(x, 0, x.length);
+    }
+
+    public static double vectorBariance(double[] x, int from, int to) {
+        int n = to - from;
+        double[] sums = sumAndSumSq(x, from, to);
+        double sum = sums[0], sumSq = sums[1];
+        return (2.0 * sumSq / (n - 1)) - (2.0 * sum * sum) / (n * (n - 1.0));
+    }
+
+    public static double vectorAltBariance(double[] x) {
+        return vectorAltBariance(x, 0, x.length);
+    }
+
+    public static double vectorAltBariance(double[] x, int from, int to) {
+        int n = to - from;
+        double[] sums = sumAndSumSq(x, from, to);
+        double sum = sums[0], sumSq = sums[1];
+        return (sumSq - (sum * sum) / n) * 2 / (n - 1);
+    }
+
+    public static double vectorUnbiasedVariance(double[] x) {
+        return vectorUnbiasedVariance(x, 0, x.length);
+    }
+
+    public static double vectorUnbiasedVariance(double[] x, int from, int to) {
+        int n = to - from;
+        double mean = vectorSum(x, from, to) / n;
+
+        int lanes = SPECIES.length();
+        int bound = from + SPECIES.loopBound(n - lanes);
+        DoubleVector m = DoubleVector.broadcast(SPECIES, mean);
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (; i < bound; i += 2 * lanes) {
+            DoubleVector d0 = DoubleVector.fromArray(SPECIES, x, i).sub(m);
+            DoubleVector d1 = DoubleVector.fromArray(SPECIES, x, i + lanes).sub(m);
+            acc0 = d0.fma(d0, acc0);
+            acc1 = d1.fma(d1, acc1);
+        }
+        double sumSq = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double d = x[i] - mean;
+            sumSq += d * d;
+        }
+        return sumSq / (n - 1);
+    }
+
+    static double vectorSum(double[] x, int from, int to) {
+        int lanes = SPECIES.length();
+        int bound = from + SPECIES.loopBound(to - from - lanes);
+        DoubleVector acc0 = DoubleVector.zero(SPECIES);
+        DoubleVector acc1 = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (; i < bound; i += 2 * lanes) {
+            acc0 = acc0.add(DoubleVector.fromArray(SPECIES, x, i));
+            acc1 = acc1.add(DoubleVector.fromArray(SPECIES, x, i + lanes));
+        }
+        double sum = acc0.add(acc1).reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) sum += x[i];
+        return sum;
+    }
+
+    // {sum, sumSq} in one pass; the small result array is scalar-replaced once inlined
+    static double[] sumAndSumSq(double[] x, int from, int to) {
+        int lanes = SPECIES.length();
+        int bound = from + SPECIES.loopBound(to - from - lanes);
+        DoubleVector s0 = DoubleVector.zero(SPECIES);
+        DoubleVector s1 = DoubleVector.zero(SPECIES);
+        DoubleVector q0 = DoubleVector.zero(SPECIES);
+        DoubleVector q1 = DoubleVector.zero(SPECIES);
+        int i = from;
+        for (; i < bound; i += 2 * lanes) {
+            DoubleVector v0 = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector v1 = DoubleVector.fromArray(SPECIES, x, i + lanes);
+            s0 = s0.add(v0);
+            s1 = s1.add(v1);
+            q0 = v0.fma(v0, q0);
+            q1 = v1.fma(v1, q1);
+        }
+        double sum = s0.add(s1).reduceLanes(VectorOperators.ADD);
+        double sumSq = q0.add(q1).reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            double v = x[i];
+            sum += v;
+            sumSq += v * v;
+        }
+        return new double[]{sum, sumSq};
+    }
+
+    // CovarianceMatrix's 2x4 tile: eight vector accumulators over `rows` packed values per column
+    // (rows is a multiple of the lane count), reduced once per tile
+    static void crossProducts2x4(double[] packed, int rows, int j, int k, double[] acc, int pp) {
+        int a0 = j * rows, a1 = a0 + rows;
+        int b0 = k * rows, b1 = b0 + rows, b2 = b1 + rows, b3 = b2 + rows;
+        DoubleVector c00 = DoubleVector.zero(SPECIES), c01 = c00, c02 = c00, c03 = c00;
+        DoubleVector c10 = c00, c11 = c00, c12 = c00, c13 = c00;
+        for (int r = 0; r < rows; r += SPECIES.length()) {
+            DoubleVector x0 = DoubleVector.fromArray(SPECIES, packed, a0 + r);
+            DoubleVector x1 = DoubleVector.fromArray(SPECIES, packed, a1 + r);
+            DoubleVector y0 = DoubleVector.fromArray(SPECIES, packed, b0 + r);
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, packed, b1 + r);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, packed, b2 + r);
+            DoubleVector y3 = DoubleVector.fromArray(SPECIES, packed, b3 + r);
+            c00 = x0.fma(y0, c00);
+            c01 = x0.fma(y1, c01);
+            c02 = x0.fma(y2, c02);
+            c03 = x0.fma(y3, c03);
+            c10 = x1.fma(y0, c10);
+            c11 = x1.fma(y1, c11);
+            c12 = x1.fma(y2, c12);
+            c13 = x1.fma(y3, c13);
+        }
+        int row0 = j * pp + k, row1 = row0 + pp;
+        acc[row0] += c00.reduceLanes(VectorOperators.ADD);
+        acc[row0 + 1] += c01.reduceLanes(VectorOperators.ADD);
+        acc[row0 + 2] += c02.reduceLanes(VectorOperators.ADD);
+        acc[row0 + 3] += c03.reduceLanes(VectorOperators.ADD);
+        acc[row1] += c10.reduceLanes(VectorOperators.ADD);
+        acc[row1 + 1] += c11.reduceLanes(VectorOperators.ADD);
+        acc[row1 + 2] += c12.reduceLanes(VectorOperators.ADD);
+        acc[row1 + 3] += c13.reduceLanes(VectorOperators.ADD);
+    }
+}
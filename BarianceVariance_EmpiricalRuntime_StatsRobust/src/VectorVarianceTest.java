@@ -0,0 +1,26 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class VectorVarianceTest {
+
+    @Test
+    public void testVectorKernelsMatchScalarIncludingTail() {
+        Random rand = new Random(42L);
+        int[] sizes = {2, 3, 7, 31, 100, 1001, 100003};
+
+        for (int n : sizes) {
+            double[] data = new double[n];
+            for (int i = 0; i < n; i++) {
+                data[i] = GammaSampler.nextGamma(rand, 2.0, 2.0);
+            }
+
+            double var = VarianceKernels.unbiasedVariance(data);
+            double tolerance = 1e-12 * var;
+            assertEquals(var, VectorVariance.vectorUnbiasedVariance(data), tolerance, "UnbiasedSimd n=" + n);
+            assertEquals(VarianceKernels.optimizedBariance(data), VectorVariance.vectorBariance(data), tolerance, "BarianceSimd n=" + n);
+            assertEquals(VarianceKernels.altBariance(data), VectorVariance.vectorAltBariance(data), tolerance, "AltBarianceSimd n=" + n);
+        }
+    }
+}